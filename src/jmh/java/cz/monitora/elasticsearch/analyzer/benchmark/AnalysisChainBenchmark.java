@@ -0,0 +1,125 @@
+package cz.monitora.elasticsearch.analyzer.benchmark;
+
+import cz.monitora.elasticsearch.analyzer.asciifold.ASCIIFoldFilter;
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemFilter;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilter;
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseFilter;
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseStemFilter;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemFilter;
+import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemFilter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Analyzes the bundled news text with whole analysis chains, results are per input token.
+ *
+ * <ul>
+ *   <li>{@code lowercase} - whitespace, {@code monitora_lowercase}
+ *   <li>{@code asciifold} - whitespace, {@code monitora_lowercase}, {@code monitora_asciifold}
+ *   <li>{@code <language>} - whitespace, {@code monitora_lowercase}, {@code
+ *       monitora_<language>_stem}
+ *   <li>{@code <language>_fused} - whitespace, {@code monitora_lowercase_stem}
+ * </ul>
+ *
+ * <p>Lowercasing keeps the original tokens, as in our index analyzers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalysisChainBenchmark {
+
+  @Param({
+    "lowercase",
+    "asciifold",
+    "czech",
+    "czech_fused",
+    "slovak",
+    "croatian",
+    "slovenian",
+    "slovenian_fused"
+  })
+  public String chain;
+
+  private Analyzer analyzer;
+  private String text;
+
+  @Setup
+  public void setup() {
+    final boolean fused = chain.endsWith("_fused");
+    final String filter = fused ? chain.substring(0, chain.indexOf('_')) : chain;
+    final boolean stems = !filter.equals("lowercase") && !filter.equals("asciifold");
+    text = Corpus.text(stems ? filter : "czech");
+    final Function<TokenStream, TokenStream> stemFilter = stemFilter(filter);
+    analyzer =
+        new Analyzer() {
+          @Override
+          protected TokenStreamComponents createComponents(String fieldName) {
+            final Tokenizer tokenizer = new WhitespaceTokenizer();
+            final TokenStream stream =
+                fused
+                    ? new LowerCaseStemFilter(tokenizer, true, stemFilter)
+                    : stemFilter.apply(new LowerCaseFilter(tokenizer, true));
+            return new TokenStreamComponents(tokenizer, stream);
+          }
+        };
+  }
+
+  private static Function<TokenStream, TokenStream> stemFilter(String filter) {
+    switch (filter) {
+      case "lowercase":
+        return Function.identity();
+      case "asciifold":
+        return in -> new ASCIIFoldFilter(in, false);
+      case "czech":
+        return in -> new CzechStemFilter(in, false);
+      case "slovak":
+        return in -> new SlovakStemFilter(in, false);
+      case "croatian":
+        return CroatianStemFilter::new;
+      case "slovenian":
+        return SlovenianStemFilter::new;
+      default:
+        throw new IllegalArgumentException("Unknown chain " + filter);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    analyzer.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(Corpus.TOKENS)
+  public int analyze() throws IOException {
+    int tokens = 0;
+    try (TokenStream stream = analyzer.tokenStream("text", text)) {
+      stream.reset();
+      while (stream.incrementToken()) {
+        tokens++;
+      }
+      stream.end();
+    }
+    return tokens;
+  }
+}
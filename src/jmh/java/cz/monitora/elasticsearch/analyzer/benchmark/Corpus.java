@@ -0,0 +1,51 @@
+package cz.monitora.elasticsearch.analyzer.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/** News text bundled with the benchmarks, one file per language. */
+final class Corpus {
+  /** Tokens per benchmark invocation, results are reported per token. */
+  static final int TOKENS = 1024;
+
+  private Corpus() {}
+
+  /** The first {@link #TOKENS} whitespace separated tokens of the text, repeated as needed. */
+  static String[] tokens(String language) {
+    final String[] words = read(language).trim().split("\\s+");
+    final String[] tokens = new String[TOKENS];
+    for (int i = 0; i < TOKENS; i++) {
+      tokens[i] = words[i % words.length];
+    }
+    return tokens;
+  }
+
+  /** Lowercase words without punctuation, as a stemmer sees them. */
+  static char[][] words(String language) {
+    final String[] tokens = tokens(language);
+    final char[][] words = new char[TOKENS][];
+    for (int i = 0; i < TOKENS; i++) {
+      words[i] = tokens[i].replaceAll("\\P{L}", "").toLowerCase(Locale.ROOT).toCharArray();
+    }
+    return words;
+  }
+
+  /** {@link #TOKENS} tokens of the text joined by spaces, as a tokenizer sees them. */
+  static String text(String language) {
+    return String.join(" ", tokens(language));
+  }
+
+  private static String read(String language) {
+    try (InputStream in = Corpus.class.getResourceAsStream(language + ".txt")) {
+      if (in == null) {
+        throw new IllegalArgumentException("No corpus for " + language);
+      }
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,215 @@
+package cz.monitora.elasticsearch.analyzer.benchmark;
+
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseTokenFilterFactory;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemFilterFactory;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexVersion;
+import org.elasticsearch.index.analysis.CharFilterFactory;
+import org.elasticsearch.index.analysis.CustomAnalyzer;
+import org.elasticsearch.index.analysis.TokenFilterFactory;
+import org.elasticsearch.index.analysis.TokenizerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Drives the analyzers of an index from several threads, like the write threads of a node. The
+ * analyzers are built from the plugin's factories, so they share whatever the factories share
+ * (settings, dictionaries, ...), and every thread gets its own token stream components from the
+ * analyzer's reuse strategy, as in Elasticsearch.
+ *
+ * <p>{@link #main(String[])} runs it with 1, 2, 4, ... threads up to the number of cores and
+ * prints tokens per second per thread and the scaling efficiency against one thread; the curve
+ * also goes to {@code build/reports/jmh/scaling.json}. Contention on shared state shows up as
+ * efficiency well below 1.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScalingBenchmark {
+
+  @Param({"czech", "czech_fused", "slovak", "croatian", "slovenian"})
+  public String chain;
+
+  private Analyzer analyzer;
+  private String text;
+  // an empty Elasticsearch home for the factories, removed when the trial ends
+  private Path home;
+
+  @Setup
+  public void setup() throws IOException {
+    final boolean fused = chain.endsWith("_fused");
+    final String language = fused ? chain.substring(0, chain.indexOf('_')) : chain;
+    text = Corpus.text(language);
+
+    final IndexSettings indexSettings =
+        new IndexSettings(
+            IndexMetadata.builder("benchmark")
+                .settings(
+                    Settings.builder()
+                        .put(IndexMetadata.SETTING_VERSION_CREATED, IndexVersion.current().id()))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build(),
+            Settings.EMPTY);
+    home = Files.createTempDirectory("scaling-benchmark");
+    final Environment env =
+        new Environment(
+            Settings.builder().put(Environment.PATH_HOME_SETTING.getKey(), home).build(), null);
+
+    final List<TokenFilterFactory> filters = new ArrayList<>();
+    if (fused) {
+      filters.add(
+          new LowerCaseStemFilterFactory(
+              indexSettings,
+              env,
+              "lowercase_stem",
+              Settings.builder().put("language", language).build()));
+    } else {
+      filters.add(
+          new LowerCaseTokenFilterFactory(indexSettings, env, "lowercase", Settings.EMPTY));
+      filters.add(stemFilterFactory(language, indexSettings, env));
+    }
+    analyzer =
+        new CustomAnalyzer(
+            TokenizerFactory.newFactory("whitespace", WhitespaceTokenizer::new),
+            new CharFilterFactory[0],
+            filters.toArray(new TokenFilterFactory[0]));
+  }
+
+  private static TokenFilterFactory stemFilterFactory(
+      String language, IndexSettings indexSettings, Environment env) {
+    final String name = language + "_stem";
+    switch (language) {
+      case "czech":
+        return new CzechStemFilterFactory(indexSettings, env, name, Settings.EMPTY);
+      case "slovak":
+        return new SlovakStemFilterFactory(indexSettings, env, name, Settings.EMPTY);
+      case "croatian":
+        return new CroatianStemFilterFactory(indexSettings, env, name, Settings.EMPTY);
+      case "slovenian":
+        return new SlovenianStemFilterFactory(indexSettings, env, name, Settings.EMPTY);
+      default:
+        throw new IllegalArgumentException("Unknown language " + language);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    analyzer.close();
+    IOUtils.rm(home);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(Corpus.TOKENS)
+  public int analyze() throws IOException {
+    int tokens = 0;
+    try (TokenStream stream = analyzer.tokenStream("text", text)) {
+      stream.reset();
+      while (stream.incrementToken()) {
+        tokens++;
+      }
+      stream.end();
+    }
+    return tokens;
+  }
+
+  /**
+   * Runs the benchmark with 1, 2, 4, ... threads and reports the scaling curve. Accepts the JMH
+   * command line options, e.g. {@code -p chain=czech} or {@code -t 16} for the maximum threads.
+   */
+  public static void main(String[] args)
+      throws RunnerException, CommandLineOptionException, IOException {
+    final CommandLineOptions commandLine = new CommandLineOptions(args);
+    final int maxThreads =
+        commandLine.getThreads().orElse(Runtime.getRuntime().availableProcessors());
+    final List<Integer> threadCounts = new ArrayList<>();
+    for (int threads = 1; threads < maxThreads; threads *= 2) {
+      threadCounts.add(threads);
+    }
+    threadCounts.add(maxThreads);
+
+    final List<String> rows = new ArrayList<>();
+    final Map<String, Double> singleThread = new HashMap<>();
+    System.out.printf(
+        "%-14s %8s %16s %16s %11s%n",
+        "chain", "threads", "tokens/s", "tokens/s/thread", "efficiency");
+    for (int threads : threadCounts) {
+      final Options options =
+          new OptionsBuilder()
+              .parent(commandLine)
+              .include(ScalingBenchmark.class.getName())
+              .threads(threads)
+              .build();
+      for (RunResult result : new Runner(options).run()) {
+        final String chain = result.getParams().getParam("chain");
+        final double tokensPerSecond = result.getPrimaryResult().getScore();
+        final double perThread = tokensPerSecond / threads;
+        singleThread.putIfAbsent(chain, perThread);
+        final double efficiency = perThread / singleThread.get(chain);
+        System.out.printf(
+            "%-14s %8d %,16.0f %,16.0f %11.2f%n",
+            chain, threads, tokensPerSecond, perThread, efficiency);
+        rows.add(
+            String.format(
+                Locale.ROOT,
+                "{\"chain\":\"%s\",\"threads\":%d,\"tokensPerSecond\":%.1f,"
+                    + "\"tokensPerSecondPerThread\":%.1f,\"efficiency\":%.4f}",
+                chain,
+                threads,
+                tokensPerSecond,
+                perThread,
+                efficiency));
+      }
+    }
+
+    final Path report = Path.of("build", "reports", "jmh", "scaling.json");
+    Files.createDirectories(report.getParent());
+    try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+      writer.write("[\n  " + String.join(",\n  ", rows) + "\n]\n");
+    }
+    System.out.println("Scaling curve written to " + report);
+  }
+}
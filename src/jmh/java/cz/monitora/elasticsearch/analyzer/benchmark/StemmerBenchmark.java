@@ -0,0 +1,93 @@
+package cz.monitora.elasticsearch.analyzer.benchmark;
+
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemmer;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmer;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmerASCIIFold;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemmer;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemmerASCIIFold;
+import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemmer;
+import cz.monitora.elasticsearch.analyzer.util.ASCIIFolder;
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Stems the bundled news text word by word, without any token stream around the stemmer. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StemmerBenchmark {
+
+  @Param({
+    "czech",
+    "czech_asciifold",
+    "slovak",
+    "slovak_asciifold",
+    "croatian",
+    "croatian_asciifold",
+    "slovenian"
+  })
+  public String stemmer;
+
+  private Stemmer impl;
+  private char[][] words;
+  private final char[] buffer = new char[256];
+
+  @Setup
+  public void setup() {
+    final boolean folded = stemmer.endsWith("_asciifold");
+    final String language = folded ? stemmer.substring(0, stemmer.indexOf('_')) : stemmer;
+    impl = create(stemmer);
+    words = Corpus.words(language);
+    if (folded) {
+      for (int i = 0; i < words.length; i++) {
+        words[i] = ASCIIFolder.fold(new String(words[i])).toCharArray();
+      }
+    }
+  }
+
+  private static Stemmer create(String stemmer) {
+    switch (stemmer) {
+      case "czech":
+        return new CzechStemmer()::stem;
+      case "czech_asciifold":
+        return new CzechStemmerASCIIFold()::stem;
+      case "slovak":
+        return new SlovakStemmer()::stem;
+      case "slovak_asciifold":
+        return new SlovakStemmerASCIIFold()::stem;
+      case "croatian":
+        return new CroatianStemmer()::stem;
+      case "croatian_asciifold":
+        return new CroatianStemmer(true)::stem;
+      case "slovenian":
+        return new SlovenianStemmer()::stem;
+      default:
+        throw new IllegalArgumentException("Unknown stemmer " + stemmer);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(Corpus.TOKENS)
+  public int stem() {
+    int total = 0;
+    for (char[] word : words) {
+      System.arraycopy(word, 0, buffer, 0, word.length);
+      total += impl.stem(buffer, word.length);
+    }
+    return total;
+  }
+}
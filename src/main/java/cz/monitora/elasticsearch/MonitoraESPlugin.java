@@ -1,18 +1,37 @@
 package cz.monitora.elasticsearch;
 
+import cz.monitora.elasticsearch.analyzer.asciifold.ASCIIFoldFilterFactory;
 import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemFilterFactory;
 import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseStemFilterFactory;
 import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseTokenFilterFactory;
+import cz.monitora.elasticsearch.analyzer.prefix.StemPrefixFilterFactory;
 import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemFilterFactory;
 import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemFilterFactory;
+import cz.monitora.elasticsearch.rest.RestAnalysisStatsAction;
+import cz.monitora.elasticsearch.rest.RestStemAction;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.IndexScopedSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.settings.SettingsFilter;
+import org.elasticsearch.features.NodeFeature;
 import org.elasticsearch.index.analysis.TokenFilterFactory;
 import org.elasticsearch.indices.analysis.AnalysisModule;
+import org.elasticsearch.plugins.ActionPlugin;
 import org.elasticsearch.plugins.AnalysisPlugin;
 import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.rest.RestController;
+import org.elasticsearch.rest.RestHandler;
 
-public class MonitoraESPlugin extends Plugin implements AnalysisPlugin {
+public class MonitoraESPlugin extends Plugin implements AnalysisPlugin, ActionPlugin {
 
   @Override
   public Map<String, AnalysisModule.AnalysisProvider<TokenFilterFactory>> getTokenFilters() {
@@ -20,10 +39,29 @@ public class MonitoraESPlugin extends Plugin implements AnalysisPlugin {
     extra.put(
         "monitora_lowercase",
         AnalysisPlugin.requiresAnalysisSettings(LowerCaseTokenFilterFactory::new));
+    extra.put(
+        "monitora_lowercase_stem",
+        AnalysisPlugin.requiresAnalysisSettings(LowerCaseStemFilterFactory::new));
+    extra.put("monitora_asciifold", ASCIIFoldFilterFactory::new);
     extra.put("monitora_czech_stem", CzechStemFilterFactory::new);
     extra.put("monitora_slovak_stem", SlovakStemFilterFactory::new);
     extra.put("monitora_croatian_stem", CroatianStemFilterFactory::new);
     extra.put("monitora_slovenian_stem", SlovenianStemFilterFactory::new);
+    extra.put("monitora_stem_prefix", StemPrefixFilterFactory::new);
     return extra;
   }
+
+  @Override
+  public List<RestHandler> getRestHandlers(
+      Settings settings,
+      NamedWriteableRegistry namedWriteableRegistry,
+      RestController restController,
+      ClusterSettings clusterSettings,
+      IndexScopedSettings indexScopedSettings,
+      SettingsFilter settingsFilter,
+      IndexNameExpressionResolver indexNameExpressionResolver,
+      Supplier<DiscoveryNodes> nodesInCluster,
+      Predicate<NodeFeature> clusterSupportsFeature) {
+    return List.of(new RestAnalysisStatsAction(), new RestStemAction());
+  }
 }
@@ -0,0 +1,128 @@
+package cz.monitora.elasticsearch.analyzer.asciifold;
+
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.OriginalToken;
+import java.io.IOException;
+import java.text.Normalizer;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * Removes diacritics of Latin letters (U+00C0 to U+017F, which covers Czech, Slovak, Croatian,
+ * Slovenian and the rest of Central Europe) in place, with a lookup table. Letters that would fold
+ * to more than one letter (ß, æ, œ, ...) and everything outside the table are left as they are.
+ *
+ * <p>If `preserveOriginal` is true, tokens that changed are followed by their original at the same
+ * position, emitted through {@link OriginalToken} without capturing the attribute state.
+ */
+public final class ASCIIFoldFilter extends TokenFilter {
+  private static final char FIRST = 'À';
+  private static final char LAST = 'ſ';
+  private static final char[] FOLDED = new char[LAST - FIRST + 1];
+
+  static {
+    for (char c = FIRST; c <= LAST; c++) {
+      final String base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+      FOLDED[c - FIRST] = base.charAt(0) < '\u0080' ? base.charAt(0) : c;
+    }
+    // letters with a stroke and a few others have no canonical decomposition, fold them as Lucene
+    final String[] letters = {
+      "ĐD", "đd", "ÐD", "ðd", "ŁL", "łl", "ĿL", "ŀl", "ØO", "øo",
+      "ĦH", "ħh", "ŦT", "ŧt", "ıi", "ſs", "ŊN", "ŋn", "ĸq"
+    };
+    for (String letter : letters) {
+      FOLDED[letter.charAt(0) - FIRST] = letter.charAt(1);
+    }
+  }
+
+  private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+  private final OriginalToken original = new OriginalToken(this);
+  private final boolean preserveOriginal;
+  private final AnalysisStats.Recorder recorder;
+
+  public ASCIIFoldFilter(TokenStream in, boolean preserveOriginal) {
+    this(in, preserveOriginal, AnalysisStats.NONE);
+  }
+
+  public ASCIIFoldFilter(TokenStream in, boolean preserveOriginal, AnalysisStats stats) {
+    super(in);
+    this.preserveOriginal = preserveOriginal;
+    this.recorder = stats.newRecorder();
+  }
+
+  /**
+   * Folds the buffer in place.
+   *
+   * @return whether any char changed
+   */
+  static boolean fold(char[] buffer, int length) {
+    final int first = firstFolded(buffer, length);
+    if (first < 0) {
+      return false;
+    }
+    fold(buffer, first, length);
+    return true;
+  }
+
+  /**
+   * The index of the first char that folding changes, or -1 if the token stays as it is. ASCII
+   * chars, most of them, take a single comparison.
+   */
+  private static int firstFolded(char[] buffer, int length) {
+    for (int i = 0; i < length; i++) {
+      final char c = buffer[i];
+      if (c >= FIRST && c <= LAST && FOLDED[c - FIRST] != c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static void fold(char[] buffer, int start, int length) {
+    for (int i = start; i < length; i++) {
+      final char c = buffer[i];
+      if (c >= FIRST && c <= LAST) {
+        buffer[i] = FOLDED[c - FIRST];
+      }
+    }
+  }
+
+  @Override
+  public boolean incrementToken() throws IOException {
+    if (original.isPending()) {
+      original.restore();
+      return true;
+    }
+
+    if (input.incrementToken()) {
+      final long start = recorder.start(termAtt);
+      final int first = firstFolded(termAtt.buffer(), termAtt.length());
+      if (first >= 0) {
+        // only a token that changes has an original to keep, the others are not saved
+        if (preserveOriginal) {
+          original.save();
+          original.keep();
+        }
+        fold(termAtt.buffer(), first, termAtt.length());
+      }
+      recorder.stop(start);
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public void reset() throws IOException {
+    super.reset();
+    original.clear();
+    recorder.flush();
+  }
+
+  @Override
+  public void end() throws IOException {
+    super.end();
+    recorder.flush();
+  }
+}
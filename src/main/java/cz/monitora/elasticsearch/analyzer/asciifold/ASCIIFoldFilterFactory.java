@@ -0,0 +1,25 @@
+package cz.monitora.elasticsearch.analyzer.asciifold;
+
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import org.apache.lucene.analysis.TokenStream;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.AbstractTokenFilterFactory;
+
+public class ASCIIFoldFilterFactory extends AbstractTokenFilterFactory {
+  private final boolean preserveOriginal;
+  private final AnalysisStats stats = AnalysisStats.forType("monitora_asciifold");
+
+  public ASCIIFoldFilterFactory(
+      IndexSettings indexSettings, Environment env, String name, Settings settings) {
+    super(name, settings);
+
+    preserveOriginal = settings.getAsBoolean("preserve_original", false);
+  }
+
+  @Override
+  public TokenStream create(TokenStream in) {
+    return new ASCIIFoldFilter(in, preserveOriginal, stats);
+  }
+}
@@ -16,7 +16,16 @@
  */
 package cz.monitora.elasticsearch.analyzer.croatian;
 
+import cz.monitora.elasticsearch.analyzer.util.ASCIIFolder;
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.PositionTerms;
+import cz.monitora.elasticsearch.analyzer.util.ProtectedWords;
+import cz.monitora.elasticsearch.analyzer.util.StemCache;
+import cz.monitora.elasticsearch.analyzer.util.StemFilterOptions;
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import cz.monitora.elasticsearch.analyzer.util.TokenClassifier;
 import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter; // for javadoc
@@ -30,29 +39,121 @@ import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
  * custom {@link TokenFilter} that sets the {@link KeywordAttribute} before this {@link
  * TokenStream}.
  *
+ * <p>Tokens longer than {@code maxTokenLength} or needing more than {@code maxWorkPerToken} steps
+ * of the stemmer (see {@link CroatianStemmer#stem(char[], int, long)}) are passed through
+ * unchanged, optionally marked as keywords, and counted in {@code shortCircuited}.
+ *
  * <p><b>NOTE</b>: Input is expected to be in lowercase, but with diacritical marks
  *
  * @see SetKeywordMarkerFilter
  */
 public final class CroatianStemFilter extends TokenFilter {
-  private final CroatianStemmer stemmer = new CroatianStemmer();
   private final CharTermAttribute termAttr = addAttribute(CharTermAttribute.class);
   private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+  private final Stemmer stemmer;
+  private final StemCache cache;
+  private final PositionTerms positionTerms;
+  private final TokenClassifier classifier;
+  private final ASCIIFolder folder;
+  private final ProtectedWords protectedWords;
+  private final int minBufferLength;
+  private final AnalysisStats.Recorder recorder;
+  private final int maxTokenLength;
+  private final boolean markKeyword;
+  private final LongAdder shortCircuited;
 
   public CroatianStemFilter(TokenStream input) {
+    this(
+        input,
+        StemFilterOptions.DEFAULT,
+        Integer.MAX_VALUE,
+        Long.MAX_VALUE,
+        false,
+        new LongAdder());
+  }
+
+  public CroatianStemFilter(
+      TokenStream input,
+      StemFilterOptions options,
+      int maxTokenLength,
+      long maxWorkPerToken,
+      boolean markKeyword,
+      LongAdder shortCircuited) {
     super(input);
+    final CroatianStemmer croatianStemmer = new CroatianStemmer(options.foldInput());
+    this.stemmer = options.stemmer((s, len) -> croatianStemmer.stem(s, len, maxWorkPerToken));
+    this.cache = options.newCache();
+    this.positionTerms = options.newPositionTerms(this);
+    this.folder = options.newFolder();
+    this.protectedWords = options.protectedWords();
+    this.minBufferLength = options.minBufferLength();
+    this.recorder = options.newRecorder();
+    this.classifier = options.newClassifier(this, recorder);
+    this.maxTokenLength = maxTokenLength;
+    this.markKeyword = markKeyword;
+    this.shortCircuited = shortCircuited;
+  }
+
+  /** The stem cache of this filter, or null if it is disabled. */
+  public StemCache getCache() {
+    return cache;
   }
 
   @Override
   public boolean incrementToken() throws IOException {
-    if (input.incrementToken()) {
-      if (!keywordAttr.isKeyword()) {
-        final int newlen = stemmer.stem(termAttr.buffer(), termAttr.length());
-        termAttr.setLength(newlen);
+    while (input.incrementToken()) {
+      final long start = recorder.start(termAttr);
+      if (folder != null) {
+        folder.fold(termAttr);
+      }
+      if (keywordAttr.isKeyword()) {
+        recorder.keyword();
+      } else if (protectedWords != null
+          && protectedWords.contains(termAttr.buffer(), termAttr.length())) {
+        keywordAttr.setKeyword(true);
+        recorder.protectedWord();
+      } else if (classifier != null && classifier.skip()) {
+        keywordAttr.setKeyword(true);
+      } else {
+        final int len = termAttr.length();
+        final char[] buffer = termAttr.resizeBuffer(Math.max(len, minBufferLength));
+        final int newlen =
+            len > maxTokenLength
+                ? CroatianStemmer.BUDGET_EXCEEDED
+                : cache != null ? cache.stem(buffer, len, stemmer) : stemmer.stem(buffer, len);
+        if (newlen == CroatianStemmer.BUDGET_EXCEEDED) {
+          shortCircuited.increment();
+          recorder.skipped();
+          if (markKeyword) {
+            keywordAttr.setKeyword(true);
+          }
+        } else {
+          termAttr.setLength(newlen);
+          recorder.stemmed();
+        }
+      }
+      final boolean emit = positionTerms == null || positionTerms.add();
+      recorder.stop(start);
+      if (emit) {
+        return true;
       }
-      return true;
-    } else {
-      return false;
+      recorder.duplicate();
     }
+    return false;
+  }
+
+  @Override
+  public void reset() throws IOException {
+    super.reset();
+    if (positionTerms != null) {
+      positionTerms.clear();
+    }
+    recorder.flush(cache);
+  }
+
+  @Override
+  public void end() throws IOException {
+    super.end();
+    recorder.flush(cache);
   }
 }
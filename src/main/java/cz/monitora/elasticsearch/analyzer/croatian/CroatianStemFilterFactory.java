@@ -1,21 +1,60 @@
 package cz.monitora.elasticsearch.analyzer.croatian;
 
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.StemFilterOptions;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.lucene.analysis.TokenStream;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.AbstractTokenFilterFactory;
+import org.elasticsearch.index.analysis.AnalysisMode;
 
 public class CroatianStemFilterFactory extends AbstractTokenFilterFactory {
+  private final StemFilterOptions options;
+  private final AnalysisMode analysisMode;
+  private final int maxTokenLength;
+  private final long maxWorkPerToken;
+  private final boolean markKeyword;
+  private final LongAdder shortCircuited = new LongAdder();
 
   /** Creates a new CroatianStemFilterFactory */
   public CroatianStemFilterFactory(
       IndexSettings indexSettings, Environment env, String name, Settings settings) {
     super(name, settings);
+    options =
+        StemFilterOptions.fromSettings(env, settings)
+            .withStats(AnalysisStats.forType("monitora_croatian_stem"));
+    analysisMode = StemFilterOptions.analysisMode(settings);
+    maxTokenLength = settings.getAsInt("max_token_length", Integer.MAX_VALUE);
+    maxWorkPerToken = settings.getAsLong("max_work_per_token", Long.MAX_VALUE);
+    final String action = settings.get("long_token_action", "pass_through");
+    switch (action) {
+      case "pass_through":
+        markKeyword = false;
+        break;
+      case "keyword":
+        markKeyword = true;
+        break;
+      default:
+        throw new IllegalArgumentException(
+            "Unknown long_token_action [" + action + "], expected [pass_through] or [keyword]");
+    }
+  }
+
+  /** Number of tokens passed through unstemmed because of the length or work limit. */
+  public long getShortCircuitedTokens() {
+    return shortCircuited.sum();
+  }
+
+  @Override
+  public AnalysisMode getAnalysisMode() {
+    return analysisMode;
   }
 
   @Override
   public TokenStream create(TokenStream input) {
-    return new CroatianStemFilter(input);
+    return new CroatianStemFilter(
+        input, options, maxTokenLength, maxWorkPerToken, markKeyword, shortCircuited);
   }
 }
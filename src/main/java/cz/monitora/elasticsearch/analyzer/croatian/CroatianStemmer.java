@@ -1,77 +1,236 @@
 package cz.monitora.elasticsearch.analyzer.croatian;
 
+import cz.monitora.elasticsearch.analyzer.util.ASCIIFolder;
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.SuffixTrie;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Map;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
 
 /**
  * Stemmer based on the algorithm described in Reliable Baselines for Sentiment Analysis in
  * Resource-Limited Languages: The Serbian Movie Review Dataset, Vuk Batanović, Boško Nikolić, Milan
  * Milosavljević (http://www.lrec-conf.org/proceedings/lrec2016/pdf/284_Paper.pdf)
+ *
+ * <p>The rules are kept in the form of the original implementation: {@code wordStart} and {@code
+ * wordEnd} are the two halves of a {@code ^(wordStart)(wordEnd)$} regular expression. At
+ * construction time all tables are compiled into one {@link SuffixTrie} that is walked backwards
+ * over the term buffer, so stemming a token neither builds strings nor runs regular expressions.
  */
 public class CroatianStemmer {
+  /** Returned by {@link #stem(char[], int, long)} when a token needs more work than allowed. */
+  public static final int BUDGET_EXCEEDED = -1;
 
-  private HashMap<String, String> transformations;
-  private HashMap<String, String> exactMatches;
+  private static final byte STOP_WORD = 1;
+  private static final byte EXACT_MATCH = 2;
+
+  private Rules transformations;
+  private Rules exactMatches;
   private HashSet<String> stopset;
   private ArrayList<String> wordStart;
   private ArrayList<String> wordEnd;
-  private ArrayList<Pattern> wordPatterns;
-  private static final Pattern vowelPattern = Pattern.compile("[aeiouR]");
+
+  // compiled tables, indexed by trie node
+  private SuffixTrie trie;
+  private byte[] wordFlags;
+  private char[][] exactReplacements;
+  private char[][] transformReplacements;
+  private int[] transformRanks;
+  private long[] ruleEnds;
+  private int ruleWords;
+  private Rule[] rules;
+
+  // scratch space reused across tokens
+  private char[] transformed = new char[16];
+  private int[] path;
+  private long[] candidates;
 
   public CroatianStemmer() {
+    this(false);
+  }
+
+  /**
+   * @param asciiFold stem input folded to ASCII, with the rule tables folded the same way
+   */
+  public CroatianStemmer(boolean asciiFold) {
     initRules();
+    if (asciiFold) {
+      foldRules();
+    }
+    compile();
+    AnalysisStats.trackMemory("rule_tables", false, this, ramBytesUsed());
+  }
+
+  /** Heap used by the compiled tables of this instance. */
+  public long ramBytesUsed() {
+    long bytes =
+        trie.ramBytesUsed()
+            + RamUsageEstimator.sizeOf(wordFlags)
+            + RamUsageEstimator.sizeOf(transformRanks)
+            + RamUsageEstimator.sizeOf(ruleEnds)
+            + RamUsageEstimator.shallowSizeOf(exactReplacements)
+            + RamUsageEstimator.shallowSizeOf(transformReplacements)
+            + RamUsageEstimator.shallowSizeOf(rules);
+    for (int node = 0; node < exactReplacements.length; node++) {
+      if (exactReplacements[node] != null) {
+        bytes += RamUsageEstimator.sizeOf(exactReplacements[node]);
+      }
+      if (transformReplacements[node] != null) {
+        bytes += RamUsageEstimator.sizeOf(transformReplacements[node]);
+      }
+    }
+    return bytes;
   }
 
   public int stem(char[] s, int len) {
-    String word = new String(s, 0, len);
+    return stem(s, len, Long.MAX_VALUE);
+  }
 
-    if (stopset.contains(word)) {
-      return len;
+  /**
+   * Stems the buffer unless it takes more than {@code maxWork} steps. A step is one character
+   * scanned or copied, one trie transition or one character class of a pattern compared, counted
+   * for every suffix a pattern is tried at, so the cost of a token is linear in its length and
+   * this puts a hard cap on it.
+   *
+   * @return length of the stem, or {@link #BUDGET_EXCEEDED} with the buffer left untouched
+   */
+  public int stem(char[] s, int len, long maxWork) {
+    int node = SuffixTrie.ROOT;
+    int transform = SuffixTrie.NONE;
+    int transformLength = 0;
+    int depth = 0;
+    while (depth < len) {
+      final int next = trie.step(node, s[len - 1 - depth]);
+      if (next == SuffixTrie.NONE) {
+        break;
+      }
+      node = next;
+      depth++;
+      if (transformReplacements[node] != null
+          && (transform == SuffixTrie.NONE || transformRanks[node] < transformRanks[transform])) {
+        transform = node;
+        transformLength = depth;
+      }
     }
 
-    if (exactMatches.containsKey(word)) {
-      String replacement = exactMatches.get(word);
-      Arrays.fill(s, '\0');
-      char[] replacementChars = replacement.toCharArray();
-      System.arraycopy(replacementChars, 0, s, 0, replacementChars.length);
-      return replacementChars.length;
+    long work = depth;
+    if (depth == len) {
+      if ((wordFlags[node] & STOP_WORD) != 0) {
+        return len;
+      }
+      if ((wordFlags[node] & EXACT_MATCH) != 0) {
+        final char[] replacement = exactReplacements[node];
+        System.arraycopy(replacement, 0, s, 0, replacement.length);
+        return replacement.length;
+      }
     }
 
-    String stemmed = transform(word);
-    for (Pattern pattern : wordPatterns) {
-      Matcher matcher = pattern.matcher(stemmed);
-      if (matcher.matches() && hasAVowel(matcher.group(1)) && matcher.group(1).length() > 1) {
-        return matcher.group(1).length();
+    // The transformed word only decides the stem length, the buffer keeps the original characters.
+    char[] word = s;
+    int wordLen = len;
+    if (transform != SuffixTrie.NONE) {
+      final char[] replacement = transformReplacements[transform];
+      final int keep = len - transformLength;
+      wordLen = keep + replacement.length;
+      work += wordLen;
+      if (work > maxWork) {
+        return BUDGET_EXCEEDED;
       }
+      transformed = ArrayUtil.grow(transformed, wordLen);
+      System.arraycopy(s, 0, transformed, 0, keep);
+      System.arraycopy(replacement, 0, transformed, keep, replacement.length);
+      word = transformed;
     }
-    return stemmed.length();
+
+    return stemTransformed(word, wordLen, work, maxWork);
   }
 
-  private String transform(String word) {
-    for (String key : transformations.keySet()) {
-      if (word.endsWith(key)) {
-        return word.substring(0, word.length() - key.length()) + transformations.get(key);
+  private int stemTransformed(char[] s, int len, long work, long maxWork) {
+    work += len;
+    if (work > maxWork) {
+      return BUDGET_EXCEEDED;
+    }
+
+    // `.` of the original patterns does not match line terminators
+    int anyLimit = len;
+    int firstVowel = len;
+    for (int i = len - 1; i >= 0; i--) {
+      final char c = s[i];
+      if (isLineTerminator(c)) {
+        anyLimit = i;
+      } else if (isVowel(c)) {
+        firstVowel = i;
+      }
+    }
+
+    Arrays.fill(candidates, 0L);
+    int node = SuffixTrie.ROOT;
+    int depth = 0;
+    path[0] = node;
+    orRules(node);
+    while (depth < len && depth < trie.maxDepth()) {
+      node = trie.step(node, s[len - 1 - depth]);
+      if (node == SuffixTrie.NONE) {
+        break;
+      }
+      path[++depth] = node;
+      orRules(node);
+    }
+    work += depth;
+
+    for (int w = 0; w < ruleWords; w++) {
+      long bits = candidates[w];
+      while (bits != 0) {
+        final int rule = (w << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        work += rules[rule].cost(path, depth, ruleEnds, ruleWords);
+        if (work > maxWork) {
+          return BUDGET_EXCEEDED;
+        }
+        final int stemLength = rules[rule].match(s, len, anyLimit, path, depth, ruleEnds, ruleWords);
+        if (stemLength > 1 && firstVowel < stemLength) {
+          return stemLength;
+        }
       }
     }
-    return word;
+    return len;
   }
 
-  private boolean hasAVowel(String word) {
-    Matcher matcher = vowelPattern.matcher(capitalizeSyllabicR(word));
-    return matcher.find();
+  private void orRules(int node) {
+    final int offset = node * ruleWords;
+    for (int w = 0; w < ruleWords; w++) {
+      candidates[w] |= ruleEnds[offset + w];
+    }
   }
 
-  private String capitalizeSyllabicR(String word) {
-    return word.replaceAll("(^|[^aeiou])r($|[^aeiou])", "$1R$2");
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  // vowels as seen by the original hasAVowel(): any 'r' left without a vowel becomes syllabic 'R'
+  private static boolean isVowel(char c) {
+    switch (c) {
+      case 'a':
+      case 'e':
+      case 'i':
+      case 'o':
+      case 'u':
+      case 'r':
+      case 'R':
+        return true;
+      default:
+        return false;
+    }
   }
 
   protected void initRules() {
     // stuff which would be fucked using patterns
-    exactMatches = new HashMap<>();
+    exactMatches = new Rules();
     exactMatches.put("zao", "zli");
     exactMatches.put("zla", "zli");
     exactMatches.put("zlo", "zli");
@@ -81,7 +240,6 @@ public class CroatianStemmer {
 
     wordStart = new ArrayList<>();
     wordEnd = new ArrayList<>();
-    wordPatterns = new ArrayList<>();
 
     wordStart.add(".+(s|š)k");
     wordEnd.add(
@@ -328,7 +486,7 @@ public class CroatianStemmer {
     stopset.add("možete");
 
     // Initialize transformations
-    transformations = new HashMap<>();
+    transformations = new Rules();
     transformations.put("lozi", "loga");
     transformations.put("lozima", "loga");
     transformations.put("pjesi", "pjeh");
@@ -461,10 +619,280 @@ public class CroatianStemmer {
     transformations.put("baci", "baci");
     transformations.put("ašan", "ašni");
 
-    // Compile patterns
-    for (int i = 0; i < wordStart.size(); i++) {
-      String pattern = "^(" + wordStart.get(i) + ")(" + wordEnd.get(i) + ")$";
-      wordPatterns.add(Pattern.compile(pattern));
+  }
+
+  private void foldRules() {
+    transformations = transformations.fold();
+    exactMatches = exactMatches.fold();
+    final HashSet<String> foldedStopset = new HashSet<>();
+    stopset.forEach(word -> foldedStopset.add(ASCIIFolder.fold(word)));
+    stopset = foldedStopset;
+    wordStart.replaceAll(ASCIIFolder::fold);
+    wordEnd.replaceAll(ASCIIFolder::fold);
+  }
+
+  private void compile() {
+    final SuffixTrie.Builder builder = new SuffixTrie.Builder();
+    final Map<Integer, Byte> flags = new HashMap<>();
+    final Map<Integer, String> exact = new HashMap<>();
+    final Map<Integer, String> transform = new HashMap<>();
+    final Map<Integer, Integer> ranks = new HashMap<>();
+    final Map<Integer, List<Integer>> ends = new HashMap<>();
+
+    for (String word : stopset) {
+      flags.merge(builder.add(word), STOP_WORD, (a, b) -> (byte) (a | b));
+    }
+    for (Map.Entry<String, String> entry : exactMatches.entrySet()) {
+      final int node = builder.add(entry.getKey());
+      flags.merge(node, EXACT_MATCH, (a, b) -> (byte) (a | b));
+      exact.put(node, entry.getValue());
+    }
+    // transform() used to take the first key in map iteration order, keep that precedence
+    int rank = 0;
+    for (Map.Entry<String, String> entry : transformations.entrySet()) {
+      final int node = builder.add(entry.getKey());
+      transform.put(node, entry.getValue());
+      ranks.put(node, rank++);
+    }
+    rules = new Rule[wordStart.size()];
+    for (int i = 0; i < rules.length; i++) {
+      rules[i] = new Rule(i, wordStart.get(i));
+      for (String end : wordEnd.get(i).split("\\|", -1)) {
+        ends.computeIfAbsent(builder.add(end), k -> new ArrayList<>()).add(i);
+      }
+    }
+
+    trie = builder.build();
+    final int size = trie.size();
+    ruleWords = (rules.length + 63) >>> 6;
+    wordFlags = new byte[size];
+    exactReplacements = new char[size][];
+    transformReplacements = new char[size][];
+    transformRanks = new int[size];
+    ruleEnds = new long[size * ruleWords];
+    flags.forEach((node, flag) -> wordFlags[node] = flag);
+    exact.forEach((node, replacement) -> exactReplacements[node] = replacement.toCharArray());
+    transform.forEach((node, replacement) -> transformReplacements[node] = replacement.toCharArray());
+    ranks.forEach((node, r) -> transformRanks[node] = r);
+    ends.forEach(
+        (node, ids) -> {
+          for (int id : ids) {
+            ruleEnds[node * ruleWords + (id >>> 6)] |= 1L << id;
+          }
+        });
+
+    path = new int[trie.maxDepth() + 1];
+    candidates = new long[ruleWords];
+  }
+
+  /**
+   * Rules from a string to a replacement. They iterate like the {@link HashMap} of the original
+   * implementation, whose order gives the precedence of transformations, and also remember the
+   * order they were declared in.
+   */
+  static final class Rules extends HashMap<String, String> {
+    private final List<String> declared = new ArrayList<>();
+
+    @Override
+    public String put(String key, String value) {
+      declared.add(key);
+      return super.put(key, value);
+    }
+
+    /**
+     * The rules folded to ASCII. Of the rules whose strings fold to the same one, the one declared
+     * first stays, so the folded rules do not depend on the iteration order of the map.
+     */
+    Rules fold() {
+      final Rules folded = new Rules();
+      for (String key : declared) {
+        final String foldedKey = ASCIIFolder.fold(key);
+        if (!folded.containsKey(foldedKey)) {
+          folded.put(foldedKey, ASCIIFolder.fold(get(key)));
+        }
+      }
+      return folded;
+    }
+  }
+
+  /**
+   * Compiled {@code wordStart} pattern: {@code .+} followed by a choice of short sequences of
+   * character classes. Matching starts at the beginning of a {@code wordEnd} suffix and goes left.
+   */
+  private static final class Rule {
+    private final int id;
+    private final CharClass[][] alternatives;
+    // chars compared when every alternative is tried at one end, an empty one still counts
+    private final int steps;
+
+    Rule(int id, String pattern) {
+      if (!pattern.startsWith(".+")) {
+        throw new IllegalArgumentException("Pattern has to start with .+ : " + pattern);
+      }
+      this.id = id;
+      final int[] pos = {2};
+      final List<List<CharClass>> parsed = parseAlternatives(pattern, pos);
+      if (pos[0] != pattern.length()) {
+        throw new IllegalArgumentException("Unsupported pattern: " + pattern);
+      }
+      alternatives = new CharClass[parsed.size()][];
+      int steps = 0;
+      for (int i = 0; i < alternatives.length; i++) {
+        alternatives[i] = parsed.get(i).toArray(new CharClass[0]);
+        steps += Math.max(1, alternatives[i].length);
+      }
+      this.steps = steps;
+    }
+
+    /**
+     * The most steps {@link #match} takes: one per suffix depth checked for an end of the rule,
+     * and at every end found, every alternative compared over its full length.
+     */
+    long cost(int[] path, int depth, long[] ends, int words) {
+      final int word = id >>> 6;
+      final long bit = 1L << id;
+      int found = 0;
+      for (int d = 0; d <= depth; d++) {
+        if ((ends[path[d] * words + word] & bit) != 0) {
+          found++;
+        }
+      }
+      return depth + 1 + (long) found * steps;
+    }
+
+    /**
+     * Returns the length of the first group the original {@code ^(.+X)(end)$} regex would report,
+     * or -1 when it does not match. The greedy {@code .+} means the longest prefix wins; for the
+     * same prefix the earlier alternative of X wins.
+     */
+    int match(char[] s, int len, int anyLimit, int[] path, int depth, long[] ends, int words) {
+      final int word = id >>> 6;
+      final long bit = 1L << id;
+      int bestAny = -1;
+      int bestAlternative = -1;
+      int bestEnd = -1;
+      for (int d = 0; d <= depth; d++) {
+        if ((ends[path[d] * words + word] & bit) == 0) {
+          continue;
+        }
+        final int end = len - d;
+        for (int a = 0; a < alternatives.length; a++) {
+          final int any = matchBackward(alternatives[a], s, end);
+          if (any < 1 || any > anyLimit || splitsSurrogates(s, any, len)) {
+            continue;
+          }
+          if (any > bestAny || (any == bestAny && a < bestAlternative)) {
+            bestAny = any;
+            bestAlternative = a;
+            bestEnd = end;
+          }
+        }
+      }
+      return bestEnd;
+    }
+
+    private static int matchBackward(CharClass[] sequence, char[] s, int end) {
+      int pos = end;
+      for (int i = sequence.length - 1; i >= 0; i--) {
+        if (pos == 0) {
+          return -1;
+        }
+        final CharClass cls = sequence[i];
+        if (cls.negated
+            && pos >= 2
+            && Character.isLowSurrogate(s[pos - 1])
+            && Character.isHighSurrogate(s[pos - 2])) {
+          // a negated class matches a whole supplementary code point
+          pos -= 2;
+        } else if (cls.matches(s[pos - 1])) {
+          pos--;
+        } else {
+          return -1;
+        }
+      }
+      return pos;
+    }
+
+    private static boolean splitsSurrogates(char[] s, int pos, int len) {
+      return pos < len && Character.isLowSurrogate(s[pos]) && Character.isHighSurrogate(s[pos - 1]);
+    }
+
+    // Parses the regex subset used by wordStart: literals, [^...] classes and (a|b) groups.
+    private static List<List<CharClass>> parseAlternatives(String pattern, int[] pos) {
+      final List<List<CharClass>> result = new ArrayList<>(parseSequence(pattern, pos));
+      while (pos[0] < pattern.length() && pattern.charAt(pos[0]) == '|') {
+        pos[0]++;
+        result.addAll(parseSequence(pattern, pos));
+      }
+      return result;
+    }
+
+    private static List<List<CharClass>> parseSequence(String pattern, int[] pos) {
+      List<List<CharClass>> result = new ArrayList<>();
+      result.add(new ArrayList<>());
+      while (pos[0] < pattern.length()) {
+        final char c = pattern.charAt(pos[0]);
+        if (c == '|' || c == ')') {
+          break;
+        }
+        final List<List<CharClass>> item;
+        if (c == '(') {
+          pos[0]++;
+          item = mergeSingleChars(parseAlternatives(pattern, pos));
+          if (pos[0] >= pattern.length() || pattern.charAt(pos[0]) != ')') {
+            throw new IllegalArgumentException("Unbalanced group: " + pattern);
+          }
+          pos[0]++;
+        } else if (c == '[') {
+          final int close = pattern.indexOf(']', pos[0]);
+          final boolean negated = pattern.charAt(pos[0] + 1) == '^';
+          final String chars = pattern.substring(pos[0] + (negated ? 2 : 1), close);
+          item = List.of(List.of(new CharClass(chars, negated)));
+          pos[0] = close + 1;
+        } else if (c == '.' || c == '*' || c == '+' || c == '?' || c == '\\') {
+          throw new IllegalArgumentException("Unsupported pattern: " + pattern);
+        } else {
+          item = List.of(List.of(new CharClass(String.valueOf(c), false)));
+          pos[0]++;
+        }
+        final List<List<CharClass>> product = new ArrayList<>();
+        for (List<CharClass> prefix : result) {
+          for (List<CharClass> suffix : item) {
+            final List<CharClass> sequence = new ArrayList<>(prefix);
+            sequence.addAll(suffix);
+            product.add(sequence);
+          }
+        }
+        result = product;
+      }
+      return result;
+    }
+
+    // (a|b|c) of single characters can never match two ways, so it becomes one class
+    private static List<List<CharClass>> mergeSingleChars(List<List<CharClass>> alternatives) {
+      final StringBuilder chars = new StringBuilder();
+      for (List<CharClass> alternative : alternatives) {
+        if (alternative.size() != 1 || alternative.get(0).negated) {
+          return alternatives;
+        }
+        chars.append(alternative.get(0).chars);
+      }
+      return List.of(List.of(new CharClass(chars.toString(), false)));
+    }
+  }
+
+  private static final class CharClass {
+    private final char[] chars;
+    private final boolean negated;
+
+    CharClass(String chars, boolean negated) {
+      this.chars = chars.toCharArray();
+      Arrays.sort(this.chars);
+      this.negated = negated;
+    }
+
+    boolean matches(char c) {
+      return (Arrays.binarySearch(chars, c) >= 0) != negated;
     }
   }
 }
@@ -1,23 +1,37 @@
 package cz.monitora.elasticsearch.analyzer.czech;
 
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.StemFilterOptions;
 import org.apache.lucene.analysis.TokenStream;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.AbstractTokenFilterFactory;
+import org.elasticsearch.index.analysis.AnalysisMode;
 
 public class CzechStemFilterFactory extends AbstractTokenFilterFactory {
   private final boolean withASCIIFold;
+  private final StemFilterOptions options;
+  private final AnalysisMode analysisMode;
 
   /** Creates a new CzechStemFilterFactory */
   public CzechStemFilterFactory(
       IndexSettings indexSettings, Environment env, String name, Settings settings) {
     super(name, settings);
     withASCIIFold = settings.getAsBoolean("with_asciifold", false);
+    options =
+        StemFilterOptions.fromSettings(env, settings)
+            .withStats(AnalysisStats.forType("monitora_czech_stem"));
+    analysisMode = StemFilterOptions.analysisMode(settings);
+  }
+
+  @Override
+  public AnalysisMode getAnalysisMode() {
+    return analysisMode;
   }
 
   @Override
   public TokenStream create(TokenStream input) {
-    return new CzechStemFilter(input, withASCIIFold);
+    return new CzechStemFilter(input, withASCIIFold, options);
   }
 }
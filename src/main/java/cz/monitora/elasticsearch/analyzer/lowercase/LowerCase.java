@@ -0,0 +1,62 @@
+package cz.monitora.elasticsearch.analyzer.lowercase;
+
+/** Lowercasing shared by the lowercase filters. */
+final class LowerCase {
+  private LowerCase() {}
+
+  /**
+   * Lowercases the buffer in place like {@code CharacterUtils.toLowerCase} and tells, in the same
+   * pass, whether any of the original chars was {@link Character#isUpperCase(char) upper case}.
+   *
+   * <p>Latin-1 chars, almost all chars of our texts, are handled inline: their upper case letters
+   * are exactly {@code A-Z} and {@code À-Þ} without {@code ×}, and lowercase by adding 0x20. The
+   * rest of a token from the first other char on takes the general code point path.
+   */
+  static boolean toLowerCase(char[] buffer, int length) {
+    boolean anyUpper = false;
+    for (int i = 0; i < length; i++) {
+      final char c = buffer[i];
+      if (c < 'A') {
+        continue;
+      }
+      if (c <= 'Z' || (c >= '\u00c0' && c <= '\u00de' && c != '\u00d7')) {
+        buffer[i] = (char) (c + 0x20);
+        anyUpper = true;
+      } else if (c > '\u00ff') {
+        return toLowerCase(buffer, i, length) || anyUpper;
+      }
+    }
+    return anyUpper;
+  }
+
+  /**
+   * Whether {@link #toLowerCase(char[], int)} would report an upper case char, without changing the
+   * buffer. A {@code preserve_original} filter checks this first, so that only the tokens whose
+   * original is kept are saved.
+   */
+  static boolean hasUpperCase(char[] buffer, int length) {
+    for (int i = 0; i < length; i++) {
+      final char c = buffer[i];
+      if (c < 'A') {
+        continue;
+      }
+      if (c <= 'Z' || (c >= '\u00c0' && c <= '\u00de' && c != '\u00d7')) {
+        return true;
+      } else if (c > '\u00ff' && Character.isUpperCase(c)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean toLowerCase(char[] buffer, int start, int length) {
+    boolean anyUpper = false;
+    for (int i = start; i < length; ) {
+      // no BMP char lowercases to a supplementary one, so only chars already checked are rewritten
+      anyUpper |= Character.isUpperCase(buffer[i]);
+      final int codePoint = Character.codePointAt(buffer, i, length);
+      i += Character.toChars(Character.toLowerCase(codePoint), buffer, i);
+    }
+    return anyUpper;
+  }
+}
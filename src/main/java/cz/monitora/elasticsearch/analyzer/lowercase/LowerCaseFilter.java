@@ -1,53 +1,51 @@
 package cz.monitora.elasticsearch.analyzer.lowercase;
 
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.OriginalToken;
 import java.io.IOException;
-import org.apache.lucene.analysis.CharacterUtils;
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
-import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 
 // based on org.apache.lucene.analysis.LowerCaseFilter
 
 /**
  * Generate lowercase tokens. If `preserveOriginal` is true, then keep also the original token,
- * containing upper case letters.
+ * containing upper case letters. The original is emitted through {@link OriginalToken}, without
+ * capturing the attribute state, so nothing is allocated per token.
  */
 public class LowerCaseFilter extends TokenFilter {
   private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
-  private final PositionIncrementAttribute posIncAttr =
-      addAttribute(PositionIncrementAttribute.class);
+  private final OriginalToken original = new OriginalToken(this);
   private final boolean preserveOriginal;
-  private State state;
+  private final AnalysisStats.Recorder recorder;
 
   public LowerCaseFilter(TokenStream in, boolean preserveOriginal) {
+    this(in, preserveOriginal, AnalysisStats.NONE);
+  }
+
+  public LowerCaseFilter(TokenStream in, boolean preserveOriginal, AnalysisStats stats) {
     super(in);
     this.preserveOriginal = preserveOriginal;
+    this.recorder = stats.newRecorder();
   }
 
   @Override
   public final boolean incrementToken() throws IOException {
-    if (state != null) {
-      restoreState(state);
-      posIncAttr.setPositionIncrement(0);
-      state = null;
+    if (original.isPending()) {
+      original.restore();
       return true;
     }
 
     if (input.incrementToken()) {
-      final char[] buffer = termAtt.buffer();
-      final int length = termAtt.length();
-
-      if (preserveOriginal) {
-        boolean isAnyUpper = false;
-        for (int i = 0; i < length && !isAnyUpper; ++i) {
-          isAnyUpper = Character.isUpperCase(buffer[i]);
-        }
-        if (isAnyUpper) {
-          state = captureState();
-        }
+      final long start = recorder.start(termAtt);
+      // only a token with upper case chars has an original to keep, lowercase ones are not saved
+      if (preserveOriginal && LowerCase.hasUpperCase(termAtt.buffer(), termAtt.length())) {
+        original.save();
+        original.keep();
       }
-      CharacterUtils.toLowerCase(termAtt.buffer(), 0, termAtt.length());
+      LowerCase.toLowerCase(termAtt.buffer(), termAtt.length());
+      recorder.stop(start);
       return true;
     } else {
       return false;
@@ -57,6 +55,13 @@ public class LowerCaseFilter extends TokenFilter {
   @Override
   public void reset() throws IOException {
     super.reset();
-    state = null;
+    original.clear();
+    recorder.flush();
+  }
+
+  @Override
+  public void end() throws IOException {
+    super.end();
+    recorder.flush();
   }
 }
@@ -0,0 +1,133 @@
+package cz.monitora.elasticsearch.analyzer.lowercase;
+
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.OriginalToken;
+import java.io.IOException;
+import java.util.function.Function;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * {@link LowerCaseFilter} and a stem filter in one: the output is the same as that of the two
+ * chained, but a token is lowercased and checked for upper case letters in a single pass, and the
+ * original token is brought back by {@link OriginalToken} instead of capturing a new attribute
+ * state for every token.
+ *
+ * <p>The stem filter is created on top of a stream that shares the attributes of this filter and
+ * hands it the tokens prepared here, so any stem filter (with its settings) can be used as is.
+ * When the stem filter drops a token, its input simply has no more tokens, and the next one is
+ * prepared.
+ */
+public final class LowerCaseStemFilter extends TokenFilter {
+  private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+  private final OriginalToken original = new OriginalToken(this);
+  private final boolean preserveOriginal;
+  private final Prepared prepared = new Prepared(this);
+  private final TokenStream stemFilter;
+  private final AnalysisStats.Recorder recorder;
+
+  /**
+   * @param stemFilter creates the stem filter applied to every token, e.g. {@code
+   *     CzechStemFilter::new}
+   */
+  public LowerCaseStemFilter(
+      TokenStream in, boolean preserveOriginal, Function<TokenStream, TokenStream> stemFilter) {
+    this(in, preserveOriginal, stemFilter, AnalysisStats.NONE);
+  }
+
+  /**
+   * @param stats counts the tokens of this filter; the stem filter counts in its own statistics
+   */
+  public LowerCaseStemFilter(
+      TokenStream in,
+      boolean preserveOriginal,
+      Function<TokenStream, TokenStream> stemFilter,
+      AnalysisStats stats) {
+    super(in);
+    this.preserveOriginal = preserveOriginal;
+    this.stemFilter = stemFilter.apply(prepared);
+    this.recorder = stats.newRecorder();
+  }
+
+  @Override
+  public boolean incrementToken() throws IOException {
+    while (true) {
+      if (original.isPending()) {
+        original.restore();
+        if (stem()) {
+          return true;
+        }
+        continue;
+      }
+
+      if (!input.incrementToken()) {
+        return false;
+      }
+      final long start = recorder.start(termAtt);
+      // only a token with upper case chars has an original to keep, lowercase ones are not saved
+      if (preserveOriginal && LowerCase.hasUpperCase(termAtt.buffer(), termAtt.length())) {
+        original.save();
+        original.keep();
+      }
+      LowerCase.toLowerCase(termAtt.buffer(), termAtt.length());
+      final boolean stemmed = stem();
+      recorder.stop(start);
+      if (stemmed) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Hands the current token to the stem filter.
+   *
+   * @return false if the stem filter dropped it, with {@code dedup_same_position}
+   */
+  private boolean stem() throws IOException {
+    prepared.ready = true;
+    return stemFilter.incrementToken();
+  }
+
+  @Override
+  public void reset() throws IOException {
+    super.reset();
+    stemFilter.reset();
+    original.clear();
+    recorder.flush();
+  }
+
+  @Override
+  public void end() throws IOException {
+    // the stem filter first, ending it clears the shared attributes before the input sets their
+    // final state
+    stemFilter.end();
+    super.end();
+    recorder.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      stemFilter.close();
+    } finally {
+      super.close();
+    }
+  }
+
+  /** Emits the token prepared by the enclosing filter, once. */
+  private static final class Prepared extends TokenStream {
+    private boolean ready;
+
+    Prepared(LowerCaseStemFilter owner) {
+      super(owner);
+    }
+
+    @Override
+    public boolean incrementToken() {
+      final boolean result = ready;
+      ready = false;
+      return result;
+    }
+  }
+}
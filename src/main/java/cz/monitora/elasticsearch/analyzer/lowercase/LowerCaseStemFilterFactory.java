@@ -0,0 +1,64 @@
+package cz.monitora.elasticsearch.analyzer.lowercase;
+
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemFilterFactory;
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import org.apache.lucene.analysis.TokenStream;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.AbstractTokenFilterFactory;
+import org.elasticsearch.index.analysis.AnalysisMode;
+import org.elasticsearch.index.analysis.TokenFilterFactory;
+
+/**
+ * {@code monitora_lowercase} followed by {@code monitora_<language>_stem} in one filter. Takes
+ * {@code language}, {@code preserve_original} and all settings of the stem filter.
+ */
+public class LowerCaseStemFilterFactory extends AbstractTokenFilterFactory {
+  private final boolean preserveOriginal;
+  private final TokenFilterFactory stemFilterFactory;
+  private final AnalysisStats stats = AnalysisStats.forType("monitora_lowercase_stem");
+
+  public LowerCaseStemFilterFactory(
+      IndexSettings indexSettings, Environment env, String name, Settings settings) {
+    super(name, settings);
+
+    preserveOriginal = settings.getAsBoolean("preserve_original", true);
+    final String language = settings.get("language");
+    if (language == null) {
+      throw new IllegalArgumentException("Missing [language] for [" + name + "]");
+    }
+    switch (language) {
+      case "czech":
+        stemFilterFactory = new CzechStemFilterFactory(indexSettings, env, name, settings);
+        break;
+      case "slovak":
+        stemFilterFactory = new SlovakStemFilterFactory(indexSettings, env, name, settings);
+        break;
+      case "croatian":
+        stemFilterFactory = new CroatianStemFilterFactory(indexSettings, env, name, settings);
+        break;
+      case "slovenian":
+        stemFilterFactory = new SlovenianStemFilterFactory(indexSettings, env, name, settings);
+        break;
+      default:
+        throw new IllegalArgumentException(
+            "Unknown language ["
+                + language
+                + "], expected [czech], [slovak], [croatian] or [slovenian]");
+    }
+  }
+
+  @Override
+  public AnalysisMode getAnalysisMode() {
+    return stemFilterFactory.getAnalysisMode();
+  }
+
+  @Override
+  public TokenStream create(TokenStream in) {
+    return new LowerCaseStemFilter(in, preserveOriginal, stemFilterFactory::create, stats);
+  }
+}
@@ -1,5 +1,6 @@
 package cz.monitora.elasticsearch.analyzer.lowercase;
 
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
 import org.apache.lucene.analysis.TokenStream;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.env.Environment;
@@ -8,6 +9,7 @@ import org.elasticsearch.index.analysis.AbstractTokenFilterFactory;
 
 public class LowerCaseTokenFilterFactory extends AbstractTokenFilterFactory {
   private final boolean preserveOriginal;
+  private final AnalysisStats stats = AnalysisStats.forType("monitora_lowercase");
 
   public LowerCaseTokenFilterFactory(
       IndexSettings indexSettings, Environment env, String name, Settings settings) {
@@ -18,6 +20,6 @@ public class LowerCaseTokenFilterFactory extends AbstractTokenFilterFactory {
 
   @Override
   public TokenStream create(TokenStream in) {
-    return new LowerCaseFilter(in, preserveOriginal);
+    return new LowerCaseFilter(in, preserveOriginal, stats);
   }
 }
@@ -0,0 +1,146 @@
+package cz.monitora.elasticsearch.analyzer.prefix;
+
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.PositionTerms;
+import java.io.IOException;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.AttributeSource;
+
+/**
+ * Follows every token, usually a stem, by its prefixes of {@code minGram} to {@code maxGram} chars
+ * at the same position, so that a prefix query becomes a term query. The prefixes are shorter than
+ * the token, have the type {@link #TYPE} and are marked as keywords so that following filters do
+ * not stem them. A prefix is never cut between the chars of a surrogate pair.
+ *
+ * <p>Prefixes already emitted at the same position, e.g. for the original of a {@code
+ * keyword_repeat} or {@code preserve_original} filter sharing its first chars with the stem, are
+ * not emitted again; the terms of the position are compared through {@link PositionTerms}.
+ *
+ * <p>Like {@link cz.monitora.elasticsearch.analyzer.util.OriginalToken}, a token with prefixes is
+ * copied to one reused clone of the attributes. Every prefix is made from that copy, and the token
+ * is copied back before the next one is read, so nothing that filters further down the chain
+ * changed in between leaks into other tokens. Nothing is allocated per token once the buffers have
+ * grown.
+ */
+public final class StemPrefixFilter extends TokenFilter {
+  /** The type of the emitted prefixes. */
+  public static final String TYPE = "<PREFIX>";
+
+  private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+  private final PositionIncrementAttribute posIncAttr =
+      addAttribute(PositionIncrementAttribute.class);
+  private final TypeAttribute typeAttr = addAttribute(TypeAttribute.class);
+  private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+  private final PositionTerms positionTerms = new PositionTerms(this);
+  private final int minGram;
+  private final int maxGram;
+  private final AnalysisStats.Recorder recorder;
+
+  // the last token with prefixes, cloned on the first one, once every filter of the chain has
+  // added its attributes
+  private AttributeSource saved;
+  private CharTermAttribute savedTermAtt;
+  // length of the next prefix to emit, none is left once it exceeds lastGram
+  private int gramLength;
+  private int lastGram = -1;
+  private boolean rewritten;
+
+  public StemPrefixFilter(TokenStream in, int minGram, int maxGram) {
+    this(in, minGram, maxGram, AnalysisStats.NONE);
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code minGram} is less than 1 or greater than {@code
+   *     maxGram}
+   */
+  public StemPrefixFilter(TokenStream in, int minGram, int maxGram, AnalysisStats stats) {
+    super(in);
+    checkGrams(minGram, maxGram);
+    this.minGram = minGram;
+    this.maxGram = maxGram;
+    this.recorder = stats.newRecorder();
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code minGram} is less than 1 or greater than {@code
+   *     maxGram}
+   */
+  static void checkGrams(int minGram, int maxGram) {
+    if (minGram < 1) {
+      throw new IllegalArgumentException("[min_gram] must be at least 1, got " + minGram);
+    }
+    if (maxGram < minGram) {
+      throw new IllegalArgumentException(
+          "[max_gram] must not be less than [min_gram] " + minGram + ", got " + maxGram);
+    }
+  }
+
+  @Override
+  public boolean incrementToken() throws IOException {
+    if (gramLength <= lastGram) {
+      saved.copyTo(this);
+      termAtt.setLength(gramLength);
+      posIncAttr.setPositionIncrement(0);
+      typeAttr.setType(TYPE);
+      keywordAttr.setKeyword(true);
+      rewritten = true;
+      gramLength = nextGram(savedTermAtt.buffer(), gramLength + 1);
+      return true;
+    }
+    if (rewritten) {
+      // upstream filters may emit their next token from these attributes without clearing them
+      saved.copyTo(this);
+      rewritten = false;
+    }
+
+    if (!input.incrementToken()) {
+      return false;
+    }
+    final long start = recorder.start(termAtt);
+    // prefixes up to the length shared with a token at this position were emitted with it, or
+    // are that token itself
+    final int shared = positionTerms.sharedPrefix();
+    positionTerms.add();
+    lastGram = Math.min(maxGram, termAtt.length() - 1);
+    gramLength = nextGram(termAtt.buffer(), Math.max(minGram, shared + 1));
+    if (gramLength <= lastGram) {
+      if (saved == null) {
+        saved = cloneAttributes();
+        savedTermAtt = saved.getAttribute(CharTermAttribute.class);
+      } else {
+        copyTo(saved);
+      }
+    }
+    recorder.stop(start);
+    return true;
+  }
+
+  /** The first length from {@code length} on that does not split a surrogate pair of the term. */
+  private int nextGram(char[] term, int length) {
+    while (length <= lastGram && Character.isHighSurrogate(term[length - 1])) {
+      length++;
+    }
+    return length;
+  }
+
+  @Override
+  public void reset() throws IOException {
+    super.reset();
+    positionTerms.clear();
+    gramLength = 0;
+    lastGram = -1;
+    rewritten = false;
+    recorder.flush();
+  }
+
+  @Override
+  public void end() throws IOException {
+    super.end();
+    recorder.flush();
+  }
+}
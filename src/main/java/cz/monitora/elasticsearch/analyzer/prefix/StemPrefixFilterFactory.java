@@ -0,0 +1,39 @@
+package cz.monitora.elasticsearch.analyzer.prefix;
+
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import org.apache.lucene.analysis.TokenStream;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.AbstractTokenFilterFactory;
+import org.elasticsearch.index.analysis.AnalysisMode;
+
+/**
+ * {@code monitora_stem_prefix}, takes {@code min_gram} (default 3) and {@code max_gram} (default
+ * 10). The prefixes are only meant to be indexed, so the filter may not be used in a search
+ * analyzer.
+ */
+public class StemPrefixFilterFactory extends AbstractTokenFilterFactory {
+  private final int minGram;
+  private final int maxGram;
+  private final AnalysisStats stats = AnalysisStats.forType("monitora_stem_prefix");
+
+  public StemPrefixFilterFactory(
+      IndexSettings indexSettings, Environment env, String name, Settings settings) {
+    super(name, settings);
+
+    minGram = settings.getAsInt("min_gram", 3);
+    maxGram = settings.getAsInt("max_gram", 10);
+    StemPrefixFilter.checkGrams(minGram, maxGram);
+  }
+
+  @Override
+  public AnalysisMode getAnalysisMode() {
+    return AnalysisMode.INDEX_TIME;
+  }
+
+  @Override
+  public TokenStream create(TokenStream in) {
+    return new StemPrefixFilter(in, minGram, maxGram, stats);
+  }
+}
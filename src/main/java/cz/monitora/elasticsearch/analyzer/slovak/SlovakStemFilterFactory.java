@@ -1,22 +1,36 @@
 package cz.monitora.elasticsearch.analyzer.slovak;
 
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.StemFilterOptions;
 import org.apache.lucene.analysis.TokenStream;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.AbstractTokenFilterFactory;
+import org.elasticsearch.index.analysis.AnalysisMode;
 
 public class SlovakStemFilterFactory extends AbstractTokenFilterFactory {
   private final boolean withASCIIFold;
+  private final StemFilterOptions options;
+  private final AnalysisMode analysisMode;
 
   public SlovakStemFilterFactory(
       IndexSettings indexSettings, Environment env, String name, Settings settings) {
     super(name, settings);
     withASCIIFold = settings.getAsBoolean("with_asciifold", false);
+    options =
+        StemFilterOptions.fromSettings(env, settings)
+            .withStats(AnalysisStats.forType("monitora_slovak_stem"));
+    analysisMode = StemFilterOptions.analysisMode(settings);
+  }
+
+  @Override
+  public AnalysisMode getAnalysisMode() {
+    return analysisMode;
   }
 
   @Override
   public TokenStream create(TokenStream input) {
-    return new SlovakStemFilter(input, withASCIIFold);
+    return new SlovakStemFilter(input, withASCIIFold, options);
   }
 }
@@ -16,6 +16,14 @@
  */
 package cz.monitora.elasticsearch.analyzer.slovenian;
 
+import cz.monitora.elasticsearch.analyzer.util.ASCIIFolder;
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.PositionTerms;
+import cz.monitora.elasticsearch.analyzer.util.ProtectedWords;
+import cz.monitora.elasticsearch.analyzer.util.StemCache;
+import cz.monitora.elasticsearch.analyzer.util.StemFilterOptions;
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import cz.monitora.elasticsearch.analyzer.util.TokenClassifier;
 import java.io.IOException;
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
@@ -35,24 +43,83 @@ import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
  * @see SetKeywordMarkerFilter
  */
 public final class SlovenianStemFilter extends TokenFilter {
-  private final SlovenianStemmer stemmer = new SlovenianStemmer();
   private final CharTermAttribute termAttr = addAttribute(CharTermAttribute.class);
   private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+  private final Stemmer stemmer;
+  private final StemCache cache;
+  private final PositionTerms positionTerms;
+  private final TokenClassifier classifier;
+  private final ASCIIFolder folder;
+  private final ProtectedWords protectedWords;
+  private final int minBufferLength;
+  private final AnalysisStats.Recorder recorder;
 
   public SlovenianStemFilter(TokenStream input) {
+    this(input, StemFilterOptions.DEFAULT);
+  }
+
+  public SlovenianStemFilter(TokenStream input, StemFilterOptions options) {
     super(input);
+    this.stemmer = options.stemmer(new SlovenianStemmer()::stem);
+    this.cache = options.newCache();
+    this.positionTerms = options.newPositionTerms(this);
+    this.folder = options.newFolder();
+    this.protectedWords = options.protectedWords();
+    this.minBufferLength = options.minBufferLength();
+    this.recorder = options.newRecorder();
+    this.classifier = options.newClassifier(this, recorder);
+  }
+
+  /** The stem cache of this filter, or null if it is disabled. */
+  public StemCache getCache() {
+    return cache;
   }
 
   @Override
   public boolean incrementToken() throws IOException {
-    if (input.incrementToken()) {
-      if (!keywordAttr.isKeyword()) {
-        final int newlen = stemmer.stem(termAttr.buffer(), termAttr.length());
+    while (input.incrementToken()) {
+      final long start = recorder.start(termAttr);
+      if (folder != null) {
+        folder.fold(termAttr);
+      }
+      if (keywordAttr.isKeyword()) {
+        recorder.keyword();
+      } else if (protectedWords != null
+          && protectedWords.contains(termAttr.buffer(), termAttr.length())) {
+        keywordAttr.setKeyword(true);
+        recorder.protectedWord();
+      } else if (classifier != null && classifier.skip()) {
+        keywordAttr.setKeyword(true);
+      } else {
+        final int len = termAttr.length();
+        final char[] buffer = termAttr.resizeBuffer(Math.max(len, minBufferLength));
+        final int newlen =
+            cache != null ? cache.stem(buffer, len, stemmer) : stemmer.stem(buffer, len);
         termAttr.setLength(newlen);
+        recorder.stemmed();
+      }
+      final boolean emit = positionTerms == null || positionTerms.add();
+      recorder.stop(start);
+      if (emit) {
+        return true;
       }
-      return true;
-    } else {
-      return false;
+      recorder.duplicate();
     }
+    return false;
+  }
+
+  @Override
+  public void reset() throws IOException {
+    super.reset();
+    if (positionTerms != null) {
+      positionTerms.clear();
+    }
+    recorder.flush(cache);
+  }
+
+  @Override
+  public void end() throws IOException {
+    super.end();
+    recorder.flush(cache);
   }
 }
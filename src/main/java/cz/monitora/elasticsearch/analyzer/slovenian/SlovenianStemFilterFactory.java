@@ -16,21 +16,35 @@
  */
 package cz.monitora.elasticsearch.analyzer.slovenian;
 
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.StemFilterOptions;
 import org.apache.lucene.analysis.TokenStream;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.AbstractTokenFilterFactory;
+import org.elasticsearch.index.analysis.AnalysisMode;
 
 public class SlovenianStemFilterFactory extends AbstractTokenFilterFactory {
+  private final StemFilterOptions options;
+  private final AnalysisMode analysisMode;
 
   public SlovenianStemFilterFactory(
       IndexSettings indexSettings, Environment env, String name, Settings settings) {
     super(name, settings);
+    options =
+        StemFilterOptions.fromSettings(env, settings)
+            .withStats(AnalysisStats.forType("monitora_slovenian_stem"));
+    analysisMode = StemFilterOptions.analysisMode(settings);
+  }
+
+  @Override
+  public AnalysisMode getAnalysisMode() {
+    return analysisMode;
   }
 
   @Override
   public TokenStream create(TokenStream input) {
-    return new SlovenianStemFilter(input);
+    return new SlovenianStemFilter(input, options);
   }
 }
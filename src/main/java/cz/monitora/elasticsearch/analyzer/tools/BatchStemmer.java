@@ -0,0 +1,130 @@
+package cz.monitora.elasticsearch.analyzer.tools;
+
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.apache.lucene.analysis.CharacterUtils;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.IOConsumer;
+
+/**
+ * Stems batches of tokens or phrases outside of an analysis chain, for {@code POST _monitora/stem}.
+ *
+ * <p>A phrase is split on whitespace and every word is stemmed like by the stem filter of the
+ * language (without dictionary, overrides and protected words, which belong to an index); the stems
+ * are joined by single spaces. Words longer than {@link CorpusStemmer#MAX_TOKEN_LENGTH} are left
+ * as they are. Stemmers are not thread-safe, so every batch borrows one from a pool of the
+ * language, which keeps up to one idle stemmer per processor.
+ */
+public final class BatchStemmer {
+  private static final Map<String, BatchStemmer> BY_LANGUAGE = new ConcurrentHashMap<>();
+  private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+  private final Supplier<Stemmer> stemmers;
+  private final boolean fold;
+  private final BlockingQueue<Stemmer> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+  private BatchStemmer(Supplier<Stemmer> stemmers, boolean fold) {
+    this.stemmers = stemmers;
+    this.fold = fold;
+  }
+
+  /**
+   * The shared batch stemmer of a language.
+   *
+   * @param withAsciifold whether words are folded to ASCII and stemmed with the folded rules, as
+   *     with {@code fold_input}
+   * @throws IllegalArgumentException for an unknown language
+   */
+  public static BatchStemmer of(String language, boolean withAsciifold) {
+    final String key = withAsciifold ? language + "_asciifold" : language;
+    return BY_LANGUAGE.computeIfAbsent(
+        key, k -> new BatchStemmer(CorpusStemmer.stemmer(k), withAsciifold));
+  }
+
+  /**
+   * Stems the phrases and passes their stems to {@code out}, in order. Nothing is sent until the
+   * caller does so: {@code _monitora/stem} collects the stems of the whole batch in its response
+   * builder.
+   *
+   * @param lowercase whether words are lowercased first, like by {@code monitora_lowercase}
+   */
+  public void stem(List<String> phrases, boolean lowercase, IOConsumer<String> out)
+      throws IOException {
+    Stemmer stemmer = pool.poll();
+    if (stemmer == null) {
+      stemmer = stemmers.get();
+    }
+    try {
+      final Batch batch = new Batch(stemmer, lowercase);
+      for (String phrase : phrases) {
+        out.accept(batch.stem(phrase));
+      }
+    } finally {
+      pool.offer(stemmer);
+    }
+  }
+
+  /** The scratch buffers of one batch. */
+  private final class Batch {
+    private final Stemmer stemmer;
+    private final boolean lowercase;
+    private final StringBuilder stems = new StringBuilder();
+    private char[] buffer = new char[64];
+    private char[] folded = new char[64];
+
+    Batch(Stemmer stemmer, boolean lowercase) {
+      this.stemmer = stemmer;
+      this.lowercase = lowercase;
+    }
+
+    String stem(String phrase) {
+      stems.setLength(0);
+      final int length = phrase.length();
+      int i = 0;
+      while (i < length) {
+        while (i < length && Character.isWhitespace(phrase.charAt(i))) {
+          i++;
+        }
+        final int start = i;
+        while (i < length && !Character.isWhitespace(phrase.charAt(i))) {
+          i++;
+        }
+        if (i > start) {
+          if (stems.length() > 0) {
+            stems.append(' ');
+          }
+          word(phrase, start, i);
+        }
+      }
+      return stems.toString();
+    }
+
+    private void word(String phrase, int start, int end) {
+      int len = end - start;
+      buffer = ArrayUtil.grow(buffer, len);
+      phrase.getChars(start, end, buffer, 0);
+      if (lowercase) {
+        CharacterUtils.toLowerCase(buffer, 0, len);
+      }
+      if (fold) {
+        // a character folds to at most 4 characters
+        folded = ArrayUtil.grow(folded, 4 * len);
+        len = ASCIIFoldingFilter.foldToASCII(buffer, 0, folded, 0, len);
+        final char[] swap = buffer;
+        buffer = folded;
+        folded = swap;
+      }
+      if (len <= CorpusStemmer.MAX_TOKEN_LENGTH) {
+        len = stemmer.stem(buffer, len);
+      }
+      stems.append(buffer, 0, len);
+    }
+  }
+}
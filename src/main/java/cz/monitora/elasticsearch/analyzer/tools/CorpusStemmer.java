@@ -0,0 +1,399 @@
+package cz.monitora.elasticsearch.analyzer.tools;
+
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemmer;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmer;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmerASCIIFold;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemmer;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemmerASCIIFold;
+import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemmer;
+import cz.monitora.elasticsearch.analyzer.util.ASCIIFolder;
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Streams plain text corpora through a stemmer and writes a frequency ranked table of {@code
+ * surface<TAB>stem<TAB>count} lines, the input format of {@link StemDictionaryBuilder}.
+ *
+ * <p>Input files (UTF-8) are memory-mapped in chunks that end on whitespace and counted in
+ * parallel by a fork-join pool, so only the vocabulary, never the corpus, is held in the heap.
+ * Tokens are maximal runs of letters and digits, lowercased; tokens longer than {@link
+ * #MAX_TOKEN_LENGTH} are skipped. Every distinct surface form is stemmed once.
+ *
+ * <p>Usage: {@code CorpusStemmer [--min-count=N] <language> <output.tsv> <input>...} where the
+ * language is one of {@code czech, slovak, croatian, slovenian}, optionally with an {@code
+ * _asciifold} suffix to fold the surface forms to ASCII (as {@code fold_input} does) and stem them
+ * with the folded rules. A summary, including how many of the most frequent forms cover given
+ * shares of all tokens (useful for sizing {@code cache_size}), is printed to stderr.
+ */
+public final class CorpusStemmer {
+  static final int MAX_TOKEN_LENGTH = 255;
+  private static final long CHUNK_BYTES = 32 << 20;
+  private static final double[] COVERAGE = {0.5, 0.8, 0.9, 0.95, 0.99};
+
+  private CorpusStemmer() {}
+
+  static Supplier<Stemmer> stemmer(String language) {
+    switch (language) {
+      case "czech":
+        return () -> new CzechStemmer()::stem;
+      case "czech_asciifold":
+        return () -> new CzechStemmerASCIIFold()::stem;
+      case "slovak":
+        return () -> new SlovakStemmer()::stem;
+      case "slovak_asciifold":
+        return () -> new SlovakStemmerASCIIFold()::stem;
+      case "croatian":
+        return () -> new CroatianStemmer()::stem;
+      case "croatian_asciifold":
+        return () -> new CroatianStemmer(true)::stem;
+      case "slovenian":
+      case "slovenian_asciifold":
+        return () -> new SlovenianStemmer()::stem;
+      default:
+        throw new IllegalArgumentException("Unknown language [" + language + "]");
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    int minCount = 1;
+    int arg = 0;
+    if (args.length > 0 && args[0].startsWith("--min-count=")) {
+      minCount = Integer.parseInt(args[0].substring("--min-count=".length()));
+      arg++;
+    }
+    if (args.length - arg < 3) {
+      System.err.println(
+          "Usage: CorpusStemmer [--min-count=N] <language> <output.tsv> <input file>...");
+      System.exit(1);
+    }
+    final Supplier<Stemmer> stemmers = stemmer(args[arg]);
+    final Path output = Path.of(args[arg + 1]);
+
+    final long start = System.nanoTime();
+    final List<Chunk> chunks = new ArrayList<>();
+    for (int i = arg + 2; i < args.length; i++) {
+      chunks.addAll(split(Path.of(args[i]), CHUNK_BYTES));
+    }
+    TermCounts counts = ForkJoinPool.commonPool().invoke(new CountTask(chunks));
+    if (args[arg].endsWith("_asciifold")) {
+      counts = counts.folded();
+    }
+    final TermCounts terms = counts;
+
+    final int[] order = counts.byCount();
+    final String[] stems = new String[counts.size()];
+    final ThreadLocal<Stemmer> local = ThreadLocal.withInitial(stemmers);
+    IntStream.range(0, counts.size())
+        .parallel()
+        .forEach(
+            term -> {
+              final char[] key = terms.key(term);
+              final char[] buffer = Arrays.copyOf(key, key.length);
+              stems[term] = new String(buffer, 0, local.get().stem(buffer, buffer.length));
+            });
+
+    long written = 0;
+    try (Writer writer = new BufferedWriter(Files.newBufferedWriter(output))) {
+      for (int term : order) {
+        if (counts.count(term) < minCount) {
+          break;
+        }
+        writer
+            .append(new String(counts.key(term)))
+            .append('\t')
+            .append(stems[term])
+            .append('\t')
+            .append(Long.toString(counts.count(term)))
+            .append('\n');
+        written++;
+      }
+    }
+
+    final Set<String> distinctStems = new HashSet<>(Arrays.asList(stems));
+    System.err.printf(
+        "%d chunks, %d tokens, %d surface forms, %d stems, %d lines written in %d s%n",
+        chunks.size(),
+        counts.total(),
+        counts.size(),
+        distinctStems.size(),
+        written,
+        (System.nanoTime() - start) / 1_000_000_000L);
+    long covered = 0;
+    int coverage = 0;
+    for (int rank = 0; rank < order.length && coverage < COVERAGE.length; rank++) {
+      covered += counts.count(order[rank]);
+      while (coverage < COVERAGE.length && covered >= COVERAGE[coverage] * counts.total()) {
+        System.err.printf(
+            "top %d surface forms cover %.0f%% of tokens%n", rank + 1, COVERAGE[coverage] * 100);
+        coverage++;
+      }
+    }
+  }
+
+  /** A byte range of a file. */
+  static final class Chunk {
+    final Path path;
+    final long start;
+    final long end;
+
+    Chunk(Path path, long start, long end) {
+      this.path = path;
+      this.start = start;
+      this.end = end;
+    }
+  }
+
+  /** Splits a file into chunks of about {@code chunkBytes} that start after an ASCII whitespace. */
+  static List<Chunk> split(Path path, long chunkBytes) throws IOException {
+    final List<Chunk> chunks = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      final ByteBuffer probe = ByteBuffer.allocate(4096);
+      long start = 0;
+      while (start < size) {
+        long end = start + Math.min(chunkBytes, size - start);
+        // UTF-8 never uses bytes below 0x80 inside multi-byte sequences, so this is a safe cut
+        boundary:
+        while (end < size) {
+          probe.clear();
+          final int read = channel.read(probe, end);
+          for (int i = 0; i < read; i++) {
+            if (probe.get(i) <= ' ' && probe.get(i) >= 0) {
+              end += i + 1;
+              break boundary;
+            }
+          }
+          end += Math.max(read, 0);
+        }
+        chunks.add(new Chunk(path, start, Math.min(end, size)));
+        start = end;
+      }
+    }
+    return chunks;
+  }
+
+  /** Counts one chunk into a fresh table. */
+  static TermCounts count(Chunk chunk) throws IOException {
+    final TermCounts counts = new TermCounts();
+    final ByteBuffer bytes;
+    try (FileChannel channel = FileChannel.open(chunk.path, StandardOpenOption.READ)) {
+      bytes = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+    }
+    final CharsetDecoder decoder =
+        StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    final CharBuffer chars = CharBuffer.allocate(1 << 16);
+    final char[] token = new char[MAX_TOKEN_LENGTH];
+    int length = 0;
+    boolean skip = false;
+    CoderResult result;
+    do {
+      // the whole chunk is available, so a truncated sequence at its end is malformed input
+      result = decoder.decode(bytes, chars, true);
+      if (result.isUnderflow()) {
+        decoder.flush(chars);
+      }
+      chars.flip();
+      while (chars.hasRemaining()) {
+        final char c = chars.get();
+        if (Character.isLetterOrDigit(c)) {
+          if (length < MAX_TOKEN_LENGTH) {
+            token[length++] = Character.toLowerCase(c);
+          } else {
+            skip = true;
+          }
+        } else {
+          if (length > 0 && !skip) {
+            counts.add(token, length, 1);
+          }
+          length = 0;
+          skip = false;
+        }
+      }
+      chars.clear();
+    } while (result.isOverflow());
+    if (length > 0 && !skip) {
+      counts.add(token, length, 1);
+    }
+    return counts;
+  }
+
+  private static final class CountTask extends RecursiveTask<TermCounts> {
+    private final List<Chunk> chunks;
+
+    CountTask(List<Chunk> chunks) {
+      this.chunks = chunks;
+    }
+
+    @Override
+    protected TermCounts compute() {
+      if (chunks.size() <= 1) {
+        try {
+          return chunks.isEmpty() ? new TermCounts() : count(chunks.get(0));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      final int middle = chunks.size() / 2;
+      final CountTask left = new CountTask(chunks.subList(0, middle));
+      left.fork();
+      final TermCounts right = new CountTask(chunks.subList(middle, chunks.size())).compute();
+      return TermCounts.merge(left.join(), right);
+    }
+  }
+
+  /**
+   * Open addressing table from terms to counts; adding an existing term does not allocate. After
+   * {@link #compact()} the entries are numbered densely and the table is read-only.
+   */
+  static final class TermCounts {
+    private char[][] keys = new char[1024][];
+    private long[] counts = new long[1024];
+    private int[] hashes = new int[1024];
+    private int size;
+    private long total;
+    private boolean compacted;
+
+    void add(char[] s, int len, long count) {
+      if (compacted) {
+        throw new IllegalStateException("Compacted");
+      }
+      total += count;
+      final int hash = hash(s, len);
+      int slot = hash & (keys.length - 1);
+      while (keys[slot] != null) {
+        if (hashes[slot] == hash && Arrays.equals(keys[slot], 0, keys[slot].length, s, 0, len)) {
+          counts[slot] += count;
+          return;
+        }
+        slot = (slot + 1) & (keys.length - 1);
+      }
+      keys[slot] = Arrays.copyOf(s, len);
+      counts[slot] = count;
+      hashes[slot] = hash;
+      if (++size * 2 > keys.length) {
+        grow();
+      }
+    }
+
+    int size() {
+      return size;
+    }
+
+    long total() {
+      return total;
+    }
+
+    /** A new table with the terms folded to ASCII; counts of terms that fold alike are summed. */
+    TermCounts folded() {
+      final TermCounts folded = new TermCounts();
+      for (int slot = 0; slot < keys.length; slot++) {
+        if (keys[slot] != null) {
+          final char[] key = ASCIIFolder.fold(new String(keys[slot])).toCharArray();
+          folded.add(key, key.length, counts[slot]);
+        }
+      }
+      return folded;
+    }
+
+    /** Moves the entries to positions {@code [0, size())}. */
+    void compact() {
+      if (compacted) {
+        return;
+      }
+      int next = 0;
+      for (int slot = 0; slot < keys.length; slot++) {
+        if (keys[slot] != null) {
+          keys[next] = keys[slot];
+          counts[next] = counts[slot];
+          next++;
+        }
+      }
+      Arrays.fill(keys, next, keys.length, null);
+      hashes = null;
+      compacted = true;
+    }
+
+    char[] key(int term) {
+      return keys[term];
+    }
+
+    long count(int term) {
+      return counts[term];
+    }
+
+    /** Compacts the table and returns the entry numbers ordered by decreasing count. */
+    int[] byCount() {
+      compact();
+      return IntStream.range(0, size)
+          .boxed()
+          .sorted((a, b) -> Long.compare(counts[b], counts[a]))
+          .mapToInt(Integer::intValue)
+          .toArray();
+    }
+
+    /** Adds the smaller table into the larger one and returns it. */
+    static TermCounts merge(TermCounts a, TermCounts b) {
+      final TermCounts into = a.size >= b.size ? a : b;
+      final TermCounts from = into == a ? b : a;
+      for (int slot = 0; slot < from.keys.length; slot++) {
+        if (from.keys[slot] != null) {
+          into.add(from.keys[slot], from.keys[slot].length, from.counts[slot]);
+        }
+      }
+      return into;
+    }
+
+    private void grow() {
+      final char[][] oldKeys = keys;
+      final long[] oldCounts = counts;
+      final int[] oldHashes = hashes;
+      keys = new char[oldKeys.length * 2][];
+      counts = new long[oldKeys.length * 2];
+      hashes = new int[oldKeys.length * 2];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != null) {
+          int slot = oldHashes[i] & (keys.length - 1);
+          while (keys[slot] != null) {
+            slot = (slot + 1) & (keys.length - 1);
+          }
+          keys[slot] = oldKeys[i];
+          counts[slot] = oldCounts[i];
+          hashes[slot] = oldHashes[i];
+        }
+      }
+    }
+
+    private static int hash(char[] s, int len) {
+      int h = 0;
+      for (int i = 0; i < len; i++) {
+        h = 31 * h + s[i];
+      }
+      return h ^ (h >>> 16);
+    }
+  }
+}
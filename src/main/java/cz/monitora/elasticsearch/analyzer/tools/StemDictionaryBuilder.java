@@ -0,0 +1,47 @@
+package cz.monitora.elasticsearch.analyzer.tools;
+
+import cz.monitora.elasticsearch.analyzer.util.StemDictionary;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link StemDictionary} file for {@code dictionary_path} from {@code surface<TAB>stem}
+ * lines, e.g. the output of {@link CorpusStemmer}; further columns are ignored.
+ *
+ * <p>Usage: {@code StemDictionaryBuilder <input.tsv> <output>}
+ */
+public final class StemDictionaryBuilder {
+  private StemDictionaryBuilder() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: StemDictionaryBuilder <surface<TAB>stem file> <output file>");
+      System.exit(1);
+    }
+    final List<Map.Entry<String, String>> entries = new ArrayList<>();
+    try (BufferedReader reader =
+        Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final int tab = line.indexOf('\t');
+        if (tab > 0) {
+          final int end = line.indexOf('\t', tab + 1);
+          final String stem = line.substring(tab + 1, end < 0 ? line.length() : end);
+          entries.add(Map.entry(line.substring(0, tab), stem));
+        }
+      }
+    }
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(args[1])))) {
+      StemDictionary.write(entries, out);
+    }
+    System.out.printf("%d lines read, dictionary written to %s%n", entries.size(), args[1]);
+  }
+}
@@ -0,0 +1,39 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * Folds terms to ASCII exactly like {@link ASCIIFoldingFilter}, so a stem filter can fold and stem
+ * in one pass instead of running a separate {@code asciifolding} filter in front of it. Pure ASCII
+ * terms, most of them, are only scanned. Use one instance per filter; folding does not allocate
+ * once the scratch buffer has grown.
+ */
+public final class ASCIIFolder {
+  private char[] output = new char[64];
+
+  /** Folds the term in place. */
+  public void fold(CharTermAttribute term) {
+    final char[] buffer = term.buffer();
+    final int len = term.length();
+    int i = 0;
+    while (i < len && buffer[i] < '\u0080') {
+      i++;
+    }
+    if (i == len) {
+      return;
+    }
+    // a character folds to at most 4 characters
+    output = ArrayUtil.grow(output, 4 * len);
+    final int folded = ASCIIFoldingFilter.foldToASCII(buffer, 0, output, 0, len);
+    term.copyBuffer(output, 0, folded);
+  }
+
+  /** Folds a string, e.g. a rule, to ASCII. */
+  public static String fold(String s) {
+    final char[] folded = new char[4 * s.length()];
+    final int length = ASCIIFoldingFilter.foldToASCII(s.toCharArray(), 0, folded, 0, s.length());
+    return new String(folded, 0, length);
+  }
+}
@@ -0,0 +1,376 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.lang.ref.Cleaner;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * Node-wide statistics of one type of filter, reported by {@code GET _monitora/analysis/stats}.
+ *
+ * <p>A filter instance is used by one thread at a time. It counts in the plain fields of its own
+ * {@link Recorder} and adds them to the shared {@link LongAdder}s, which are striped by thread,
+ * when a field value starts or ends, so indexing threads do not contend. Every {@value
+ * #SAMPLE_INTERVAL}th token is timed, which keeps the cost of the timing negligible.
+ *
+ * <p>The memory held by rule tables, dictionaries, overrides, protected words and caches is
+ * tracked by kind for as long as the object that holds it is reachable.
+ *
+ * <p>The statistics are also emitted as JFR events: a {@link FilterThroughputEvent} per filter type
+ * every period and a {@link SlowTokenEvent} for every token over the threshold. While no recording
+ * enables the slow token event, a token costs one more check of a flag; while one does, a copy of
+ * the token and the timing of one reused event per filter.
+ */
+public final class AnalysisStats {
+  /** One in this many tokens is timed. */
+  public static final int SAMPLE_INTERVAL = 1024;
+
+  /** Collects and discards, for filters created outside of an index (tests, tools). */
+  public static final AnalysisStats NONE = new AnalysisStats("none");
+
+  private static final Map<String, AnalysisStats> BY_TYPE = new ConcurrentHashMap<>();
+  private static final Map<String, Memory> MEMORY = new ConcurrentHashMap<>();
+  private static final Cleaner CLEANER = Cleaner.create();
+  private static final EventType SLOW_TOKEN = registerEvents();
+
+  private final String type;
+
+  private final LongAdder tokens = new LongAdder();
+  private final LongAdder stemmed = new LongAdder();
+  private final LongAdder keywords = new LongAdder();
+  private final LongAdder protectedWords = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder duplicates = new LongAdder();
+  private final LongAdder[] skippedByClass = new LongAdder[TokenClass.values().length];
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder sampledTokens = new LongAdder();
+  private final LongAdder sampledNanos = new LongAdder();
+  // totals at the last throughput event: tokens, stemmed, hits, misses, sampled tokens and nanos
+  private final long[] emitted = new long[6];
+
+  AnalysisStats(String type) {
+    this.type = type;
+    for (int i = 0; i < skippedByClass.length; i++) {
+      skippedByClass[i] = new LongAdder();
+    }
+  }
+
+  /** The statistics of a filter type, e.g. {@code monitora_czech_stem}. */
+  public static AnalysisStats forType(String type) {
+    return BY_TYPE.computeIfAbsent(type, AnalysisStats::new);
+  }
+
+  /** The statistics of every filter type used on this node, by type. */
+  public static Map<String, AnalysisStats> byType() {
+    return new TreeMap<>(BY_TYPE);
+  }
+
+  /** A recorder for one filter instance. */
+  public Recorder newRecorder() {
+    return new Recorder(this);
+  }
+
+  /** Tokens seen by the filter. */
+  public long tokens() {
+    return tokens.sum();
+  }
+
+  /** Tokens handed to the stemmer, or the cache in front of it. */
+  public long stemmed() {
+    return stemmed.sum();
+  }
+
+  /** Tokens that were already keywords and so were not stemmed. */
+  public long keywords() {
+    return keywords.sum();
+  }
+
+  /** Tokens marked as keywords because they are protected words. */
+  public long protectedWords() {
+    return protectedWords.sum();
+  }
+
+  /**
+   * Tokens left unstemmed for other reasons: their {@link TokenClass class} or the limits of the
+   * Croatian stemmer.
+   */
+  public long skipped() {
+    return skipped.sum();
+  }
+
+  /** Tokens skipped because of their class, see {@code skip_token_classes}. */
+  public long skipped(TokenClass tokenClass) {
+    return skippedByClass[tokenClass.ordinal()].sum();
+  }
+
+  /** Tokens dropped as duplicates of another token at the same position. */
+  public long duplicates() {
+    return duplicates.sum();
+  }
+
+  public long cacheHits() {
+    return cacheHits.sum();
+  }
+
+  public long cacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  /** Share of cache lookups that hit, 0 without lookups. */
+  public double cacheHitRate() {
+    final long hits = cacheHits();
+    final long lookups = hits + cacheMisses();
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  /** Tokens that were timed. */
+  public long sampledTokens() {
+    return sampledTokens.sum();
+  }
+
+  /** Average time the filter spent on a sampled token, 0 without samples. */
+  public double nanosPerToken() {
+    final long sampled = sampledTokens();
+    return sampled == 0 ? 0 : (double) sampledNanos.sum() / sampled;
+  }
+
+  // registering events needs a permission, see plugin-security.policy
+  @SuppressWarnings("removal")
+  private static EventType registerEvents() {
+    return AccessController.doPrivileged(
+        (PrivilegedAction<EventType>)
+            () -> {
+              FlightRecorder.addPeriodicEvent(
+                  FilterThroughputEvent.class, AnalysisStats::emitThroughput);
+              return EventType.getEventType(SlowTokenEvent.class);
+            });
+  }
+
+  /** Emits a throughput event for every filter type, called by JFR every period. */
+  private static void emitThroughput() {
+    for (AnalysisStats stats : BY_TYPE.values()) {
+      final long[] totals = {
+        stats.tokens(),
+        stats.stemmed(),
+        stats.cacheHits(),
+        stats.cacheMisses(),
+        stats.sampledTokens(),
+        stats.sampledNanos.sum()
+      };
+      final long[] delta = new long[totals.length];
+      for (int i = 0; i < totals.length; i++) {
+        delta[i] = totals[i] - stats.emitted[i];
+        stats.emitted[i] = totals[i];
+      }
+      if (delta[0] == 0) {
+        continue;
+      }
+      final FilterThroughputEvent event = new FilterThroughputEvent();
+      event.filter = stats.type;
+      event.tokens = delta[0];
+      event.stemmed = delta[1];
+      event.cacheHits = delta[2];
+      event.cacheMisses = delta[3];
+      event.nanosPerToken = delta[4] == 0 ? 0 : delta[5] / delta[4];
+      event.commit();
+    }
+  }
+
+  /**
+   * Counts {@code bytes} under {@code kind} until {@code owner} becomes unreachable.
+   *
+   * @param offHeap whether the bytes are outside of the Java heap, e.g. memory-mapped
+   */
+  public static void trackMemory(String kind, boolean offHeap, Object owner, long bytes) {
+    final LongAdder adder = MEMORY.computeIfAbsent(kind, k -> new Memory()).adder(offHeap);
+    adder.add(bytes);
+    CLEANER.register(owner, () -> adder.add(-bytes));
+  }
+
+  /** Memory held by the plugin, by kind ({@code rule_tables}, {@code caches}, ...). */
+  public static Map<String, Memory> memory() {
+    return new TreeMap<>(MEMORY);
+  }
+
+  /** Bytes of one kind of data. */
+  public static final class Memory {
+    private final LongAdder heap = new LongAdder();
+    private final LongAdder offHeap = new LongAdder();
+
+    private LongAdder adder(boolean offHeap) {
+      return offHeap ? this.offHeap : heap;
+    }
+
+    public long heapBytes() {
+      return heap.sum();
+    }
+
+    public long offHeapBytes() {
+      return offHeap.sum();
+    }
+  }
+
+  /** Counts of one filter instance, not thread-safe. */
+  public static final class Recorder {
+    private final AnalysisStats stats;
+    private long tokens;
+    private long stemmed;
+    private long keywords;
+    private long protectedWords;
+    private long skipped;
+    private long duplicates;
+    private final long[] skippedByClass = new long[TokenClass.values().length];
+    private long sampledTokens;
+    private long sampledNanos;
+    private int untilSample = SAMPLE_INTERVAL;
+    // totals of the cache at the last flush
+    private long cacheHits;
+    private long cacheMisses;
+    // one event reused for every token timed, and a copy of the token as it came to the filter;
+    // its hash and string are only made for the few tokens over the threshold
+    private SlowTokenEvent slowToken;
+    private boolean slowTokenTimed;
+    private char[] slowTokenChars = new char[SlowTokenEvent.MAX_TOKEN_CHARS];
+    private int slowTokenLength;
+
+    private Recorder(AnalysisStats stats) {
+      this.stats = stats;
+    }
+
+    /**
+     * Counts a token and, while a recording enables slow token events, times it for one.
+     *
+     * @param term the token as it came to the filter
+     * @return the start time if the token is sampled, for {@link #stop(long)}, 0 otherwise
+     */
+    public long start(CharTermAttribute term) {
+      if (SLOW_TOKEN.isEnabled()) {
+        final int length = term.length();
+        slowTokenChars = ArrayUtil.grow(slowTokenChars, length);
+        System.arraycopy(term.buffer(), 0, slowTokenChars, 0, length);
+        slowTokenLength = length;
+        if (slowToken == null) {
+          slowToken = new SlowTokenEvent();
+        }
+        slowTokenTimed = true;
+        slowToken.begin();
+      }
+      return start();
+    }
+
+    /**
+     * Counts a token.
+     *
+     * @return the start time if the token is timed, for {@link #stop(long)}, 0 otherwise
+     */
+    public long start() {
+      tokens++;
+      if (--untilSample == 0) {
+        untilSample = SAMPLE_INTERVAL;
+        return System.nanoTime();
+      }
+      return 0;
+    }
+
+    /** Ends the token started at {@code start}. */
+    public void stop(long start) {
+      if (start != 0) {
+        sampledTokens++;
+        sampledNanos += System.nanoTime() - start;
+      }
+      if (slowTokenTimed) {
+        commitSlowToken();
+      }
+    }
+
+    private void commitSlowToken() {
+      final SlowTokenEvent event = slowToken;
+      slowTokenTimed = false;
+      event.end();
+      if (event.shouldCommit()) {
+        int hash = 0;
+        for (int i = 0; i < slowTokenLength; i++) {
+          hash = 31 * hash + slowTokenChars[i];
+        }
+        event.filter = stats.type;
+        event.token =
+            new String(
+                slowTokenChars, 0, Math.min(slowTokenLength, SlowTokenEvent.MAX_TOKEN_CHARS));
+        event.length = slowTokenLength;
+        event.hash = hash;
+        event.commit();
+      }
+    }
+
+    public void stemmed() {
+      stemmed++;
+    }
+
+    public void keyword() {
+      keywords++;
+    }
+
+    public void protectedWord() {
+      protectedWords++;
+    }
+
+    public void skipped() {
+      skipped++;
+    }
+
+    public void skipped(TokenClass tokenClass) {
+      skipped++;
+      skippedByClass[tokenClass.ordinal()]++;
+    }
+
+    public void duplicate() {
+      duplicates++;
+    }
+
+    /** Adds the counts since the last flush to the node-wide statistics. */
+    public void flush() {
+      flush(null);
+    }
+
+    /** Adds the counts since the last flush, and those of the cache if any, to the statistics. */
+    public void flush(StemCache cache) {
+      if (cache != null) {
+        add(stats.cacheHits, cache.hits() - cacheHits);
+        add(stats.cacheMisses, cache.misses() - cacheMisses);
+        cacheHits = cache.hits();
+        cacheMisses = cache.misses();
+      }
+      if (tokens == 0) {
+        return;
+      }
+      stats.tokens.add(tokens);
+      add(stats.stemmed, stemmed);
+      add(stats.keywords, keywords);
+      add(stats.protectedWords, protectedWords);
+      add(stats.skipped, skipped);
+      add(stats.duplicates, duplicates);
+      for (int i = 0; i < skippedByClass.length; i++) {
+        add(stats.skippedByClass[i], skippedByClass[i]);
+        skippedByClass[i] = 0;
+      }
+      add(stats.sampledTokens, sampledTokens);
+      add(stats.sampledNanos, sampledNanos);
+      tokens = stemmed = keywords = protectedWords = skipped = duplicates = 0;
+      sampledTokens = sampledNanos = 0;
+    }
+
+    private static void add(LongAdder adder, long value) {
+      if (value != 0) {
+        adder.add(value);
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * What one type of filter did since the previous event, emitted periodically (every 10 s by
+ * default) from {@link AnalysisStats} while a recording enables it.
+ */
+@Name("cz.monitora.analysis.FilterThroughput")
+@Label("Filter Throughput")
+@Description("Tokens processed by a type of monitora filter since the previous event")
+@Category({"Monitora", "Analysis"})
+@Period("10 s")
+@StackTrace(false)
+final class FilterThroughputEvent extends jdk.jfr.Event {
+  @Label("Filter")
+  @Description("Type of the filter, e.g. monitora_czech_stem")
+  String filter;
+
+  @Label("Tokens")
+  long tokens;
+
+  @Label("Stemmed")
+  long stemmed;
+
+  @Label("Cache Hits")
+  long cacheHits;
+
+  @Label("Cache Misses")
+  long cacheMisses;
+
+  @Label("Time per Token")
+  @Description("Average of the sampled tokens, 0 without samples")
+  @Timespan(Timespan.NANOSECONDS)
+  long nanosPerToken;
+}
@@ -0,0 +1,57 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.util.AttributeSource;
+
+/**
+ * The original of a token rewritten in place by a {@code preserve_original} filter, to be emitted
+ * right after it at the same position.
+ *
+ * <p>All attributes of the token are copied to one reused clone of the attributes and copied back
+ * on restore, so that whatever filters further down the chain changed in between (offsets, type,
+ * position length, ...) does not leak into the original. Unlike capturing the state, nothing is
+ * allocated per token once the buffers have grown.
+ */
+public final class OriginalToken {
+  private final AttributeSource source;
+  private final PositionIncrementAttribute posIncAttr;
+  // cloned on the first save, once every filter of the chain has added its attributes
+  private AttributeSource saved;
+  private boolean pending;
+
+  public OriginalToken(AttributeSource source) {
+    this.source = source;
+    posIncAttr = source.addAttribute(PositionIncrementAttribute.class);
+  }
+
+  /** Copies the current token before it is rewritten. */
+  public void save() {
+    if (saved == null) {
+      saved = source.cloneAttributes();
+    } else {
+      source.copyTo(saved);
+    }
+  }
+
+  /** Schedules the saved token to be emitted next. */
+  public void keep() {
+    pending = true;
+  }
+
+  /** Whether a kept original waits to be emitted. */
+  public boolean isPending() {
+    return pending;
+  }
+
+  /** Turns the current token into the kept original, at the same position. */
+  public void restore() {
+    saved.copyTo(source);
+    posIncAttr.setPositionIncrement(0);
+    pending = false;
+  }
+
+  /** Drops a pending original, e.g. on reset. */
+  public void clear() {
+    pending = false;
+  }
+}
@@ -0,0 +1,85 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.util.Arrays;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.AttributeSource;
+
+/**
+ * The terms emitted at the current position, for {@code dedup_same_position}: a token at the same
+ * position (increment 0) as an emitted token with the same term is a duplicate, like in {@code
+ * remove_duplicates}.
+ *
+ * <p>{@link #sharedPrefix()} serves {@code monitora_stem_prefix}, which emits a prefix only once
+ * per position.
+ *
+ * <p>The terms are appended to one reused buffer and compared by a linear scan, which beats hashing
+ * for the one or two terms a position usually has. Nothing is allocated per token once the buffers
+ * have grown.
+ */
+public final class PositionTerms {
+  private final CharTermAttribute termAtt;
+  private final PositionIncrementAttribute posIncAttr;
+  private char[] chars = new char[32];
+  // end of every term in chars
+  private int[] ends = new int[4];
+  private int count;
+
+  public PositionTerms(AttributeSource source) {
+    termAtt = source.addAttribute(CharTermAttribute.class);
+    posIncAttr = source.addAttribute(PositionIncrementAttribute.class);
+  }
+
+  /**
+   * Remembers the term of the current token for its position.
+   *
+   * @return false if the term was already emitted at the position, so the token is to be dropped
+   */
+  public boolean add() {
+    final char[] term = termAtt.buffer();
+    final int length = termAtt.length();
+    if (posIncAttr.getPositionIncrement() > 0) {
+      count = 0;
+    } else {
+      int start = 0;
+      for (int i = 0; i < count; i++) {
+        if (Arrays.equals(chars, start, ends[i], term, 0, length)) {
+          return false;
+        }
+        start = ends[i];
+      }
+    }
+    final int start = count == 0 ? 0 : ends[count - 1];
+    chars = ArrayUtil.grow(chars, start + length);
+    System.arraycopy(term, 0, chars, start, length);
+    ends = ArrayUtil.grow(ends, count + 1);
+    ends[count++] = start + length;
+    return true;
+  }
+
+  /**
+   * The length of the longest prefix the current token shares with a term remembered at its
+   * position, 0 at a new position. Call before {@link #add()}.
+   */
+  public int sharedPrefix() {
+    if (posIncAttr.getPositionIncrement() > 0) {
+      return 0;
+    }
+    final char[] term = termAtt.buffer();
+    final int length = termAtt.length();
+    int longest = 0;
+    int start = 0;
+    for (int i = 0; i < count; i++) {
+      final int mismatch = Arrays.mismatch(chars, start, ends[i], term, 0, length);
+      longest = Math.max(longest, mismatch < 0 ? length : mismatch);
+      start = ends[i];
+    }
+    return longest;
+  }
+
+  /** Forgets the terms, e.g. on reset. */
+  public void clear() {
+    count = 0;
+  }
+}
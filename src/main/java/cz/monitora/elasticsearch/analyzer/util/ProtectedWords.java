@@ -0,0 +1,140 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * Immutable set of words that must not be stemmed, e.g. brand names.
+ *
+ * <p>All words are stored in one {@code char[]} and indexed by an open addressing table of ints,
+ * so tens of thousands of words take a few hundred kilobytes and a lookup on the term buffer does
+ * not allocate. Sets loaded through {@link #open(Path, boolean)} are shared by all indices and
+ * shards on the node.
+ */
+public final class ProtectedWords {
+  private static final SharedFiles<ProtectedWords> OPEN = new SharedFiles<>();
+
+  private final char[] chars;
+  // start of word i in chars, plus the end of the last word
+  private final int[] starts;
+  // word index + 1 per slot, 0 for an empty slot
+  private final int[] slots;
+  private final int[] hashes;
+  private final int mask;
+
+  private ProtectedWords(char[] chars, int[] starts) {
+    this.chars = chars;
+    this.starts = starts;
+    final int size = starts.length - 1;
+    final int capacity = Integer.highestOneBit(Math.max(2, size * 2) * 2 - 1);
+    this.slots = new int[capacity];
+    this.hashes = new int[capacity];
+    this.mask = capacity - 1;
+    for (int word = 0; word < size; word++) {
+      final int hash = hash(chars, starts[word], starts[word + 1]);
+      int slot = hash & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = word + 1;
+      hashes[slot] = hash;
+    }
+    AnalysisStats.trackMemory("protected_words", false, this, ramBytesUsed());
+  }
+
+  /**
+   * Builds a set, empty words and duplicates are ignored.
+   *
+   * @param asciiFold fold the words to ASCII, for filters that fold their input
+   */
+  public static ProtectedWords of(Iterable<String> words, boolean asciiFold) {
+    final Set<String> unique = new LinkedHashSet<>();
+    int length = 0;
+    for (String word : words) {
+      final String w = asciiFold ? ASCIIFolder.fold(word) : word;
+      if (!w.isEmpty() && unique.add(w)) {
+        length += w.length();
+      }
+    }
+    final char[] chars = new char[length];
+    final int[] starts = new int[unique.size() + 1];
+    int word = 0;
+    for (String w : unique) {
+      w.getChars(0, w.length(), chars, starts[word]);
+      starts[word + 1] = starts[word] + w.length();
+      word++;
+    }
+    return new ProtectedWords(chars, starts);
+  }
+
+  /**
+   * Loads a word list, one word per line, UTF-8. Empty lines and lines starting with {@code #} are
+   * skipped. The set is shared with every other caller of the same unchanged file, a changed file
+   * is loaded again, see {@link SharedFiles}.
+   */
+  public static ProtectedWords open(Path path, boolean asciiFold) throws IOException {
+    return OPEN.open(path, String.valueOf(asciiFold), real -> load(real, asciiFold));
+  }
+
+  private static ProtectedWords load(Path path, boolean asciiFold) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      return of(
+          () ->
+              reader
+                  .lines()
+                  .map(String::strip)
+                  .filter(line -> !line.isEmpty() && line.charAt(0) != '#')
+                  .iterator(),
+          asciiFold);
+    }
+  }
+
+  /** Number of words. */
+  public int size() {
+    return starts.length - 1;
+  }
+
+  /** Heap used by the set. */
+  public long ramBytesUsed() {
+    return RamUsageEstimator.sizeOf(chars)
+        + RamUsageEstimator.sizeOf(starts)
+        + RamUsageEstimator.sizeOf(slots)
+        + RamUsageEstimator.sizeOf(hashes);
+  }
+
+  /** Whether the first {@code len} chars of the term buffer are a protected word. */
+  public boolean contains(char[] s, int len) {
+    final int hash = hash(s, 0, len);
+    int slot = hash & mask;
+    int word;
+    while ((word = slots[slot]) != 0) {
+      if (hashes[slot] == hash) {
+        final int start = starts[word - 1];
+        if (starts[word] - start == len
+            && Arrays.equals(chars, start, start + len, s, 0, len)) {
+          return true;
+        }
+      }
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  private static int hash(char[] s, int from, int to) {
+    int h = 0;
+    for (int i = from; i < to; i++) {
+      h = 31 * h + s[i];
+    }
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    return h ^ (h >>> 16);
+  }
+}
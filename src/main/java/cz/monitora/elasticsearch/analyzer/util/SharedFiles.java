@@ -0,0 +1,115 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Data loaded from files, e.g. {@link StemOverrides}, shared by all indices and shards on the node.
+ *
+ * <p>A file is loaded once per version (modification time and size). Filters created after the
+ * file changed, e.g. by {@code _reload_search_analyzers}, get the new version, built by the first
+ * of them while the others wait for it, and filters created before keep the old version until
+ * they are dropped. Only the latest version of a file is held here, so older ones are freed once
+ * no filter uses them. The loads run outside of any map lock, so loading a large file does not
+ * block other files.
+ *
+ * <p>Files must be replaced by renaming a new file over them, never rewritten in place: a {@link
+ * StemDictionary} maps its file, and filters still reading the old mapping fail when it is
+ * truncated or overwritten.
+ */
+final class SharedFiles<T> {
+  private final Map<String, Version<T>> files = new ConcurrentHashMap<>();
+  // the load running for a key, at most one at a time
+  private final Map<String, CompletableFuture<Version<T>>> loading = new ConcurrentHashMap<>();
+
+  /** Loads the data of a file. */
+  @FunctionalInterface
+  interface Loader<T> {
+    T load(Path path) throws IOException;
+  }
+
+  private static final class Version<T> {
+    final long modified;
+    final long size;
+    final T data;
+
+    Version(long modified, long size, T data) {
+      this.modified = modified;
+      this.size = size;
+      this.data = data;
+    }
+
+    boolean is(long modified, long size) {
+      return this.modified == modified && this.size == size;
+    }
+  }
+
+  /**
+   * The data of the current version of a file, loaded if it changed since the last call.
+   *
+   * @param variant tells apart different data loaded from the same file, e.g. folded or not
+   * @throws IOException if the file cannot be loaded, the version loaded before stays current
+   */
+  T open(Path path, String variant, Loader<T> loader) throws IOException {
+    final Path real = path.toRealPath();
+    final long modified = Files.getLastModifiedTime(real).toMillis();
+    final long size = Files.size(real);
+    final String key = real + ":" + variant;
+    while (true) {
+      final Version<T> current = files.get(key);
+      if (current != null && current.is(modified, size)) {
+        return current.data;
+      }
+      final CompletableFuture<Version<T>> load = new CompletableFuture<>();
+      final CompletableFuture<Version<T>> running = loading.putIfAbsent(key, load);
+      if (running == null) {
+        return load(key, real, modified, size, loader, load).data;
+      }
+      // another thread loads the file, possibly an older version of it
+      final Version<T> loaded = await(running);
+      if (loaded.is(modified, size)) {
+        return loaded.data;
+      }
+    }
+  }
+
+  private Version<T> load(
+      String key,
+      Path real,
+      long modified,
+      long size,
+      Loader<T> loader,
+      CompletableFuture<Version<T>> load)
+      throws IOException {
+    try {
+      final Version<T> version = new Version<>(modified, size, loader.load(real));
+      files.put(key, version);
+      load.complete(version);
+      return version;
+    } catch (IOException | RuntimeException e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(key, load);
+    }
+  }
+
+  private static <T> Version<T> await(CompletableFuture<Version<T>> running) throws IOException {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw new IOException(e.getCause().getMessage(), e.getCause());
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A token that a filter took longer than the threshold (1 ms by default) to process. Every {@link
+ * AnalysisStats.Recorder} reuses one event, created once a recording enables it, and fills in the
+ * fields only for the tokens that are committed.
+ */
+@Name("cz.monitora.analysis.SlowToken")
+@Label("Slow Token")
+@Description("A token that a monitora filter took long to process")
+@Category({"Monitora", "Analysis"})
+@Threshold("1 ms")
+@StackTrace(false)
+final class SlowTokenEvent extends jdk.jfr.Event {
+  /** Chars of the token recorded, the rest is cut off. */
+  static final int MAX_TOKEN_CHARS = 32;
+
+  @Label("Filter")
+  @Description("Type of the filter, e.g. monitora_czech_stem")
+  String filter;
+
+  @Label("Token")
+  @Description("The token as it came to the filter, cut to " + MAX_TOKEN_CHARS + " chars")
+  String token;
+
+  @Label("Token Length")
+  @Description("Length of the whole token in chars")
+  int length;
+
+  @Label("Token Hash")
+  @Description("String.hashCode() of the whole token")
+  int hash;
+}
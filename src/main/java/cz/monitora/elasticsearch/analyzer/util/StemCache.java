@@ -0,0 +1,137 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.util.Arrays;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * Bounded cache of stems for a single token filter instance (and so a single thread).
+ *
+ * <p>News text is highly repetitive, so most tokens are stemmed over and over. The cache is a
+ * 4-way set associative table over flat primitive arrays; within a set entries are evicted with the
+ * CLOCK (second chance) policy. Tokens longer than {@link #MAX_LENGTH} are not cached. Lookups and
+ * inserts do not allocate.
+ */
+public final class StemCache {
+  /** Longest token (and stem) that is cached. */
+  public static final int MAX_LENGTH = 32;
+
+  private static final int WAYS = 4;
+
+  private final int mask;
+  private final int[] hashes;
+  private final byte[] keyLengths;
+  private final byte[] stemLengths;
+  private final boolean[] referenced;
+  private final byte[] hands;
+  private final char[] keys;
+  private final char[] stems;
+  // the token of a miss, the stemmer overwrites it in the buffer
+  private final char[] key = new char[MAX_LENGTH];
+  private long hits;
+  private long misses;
+
+  /**
+   * @param size number of entries, rounded up to a power of two
+   */
+  public StemCache(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Cache size has to be positive, got " + size);
+    }
+    final int sets = Integer.highestOneBit(Math.max(1, (size + WAYS - 1) / WAYS) * 2 - 1);
+    final int slots = sets * WAYS;
+    mask = sets - 1;
+    hashes = new int[slots];
+    keyLengths = new byte[slots];
+    stemLengths = new byte[slots];
+    referenced = new boolean[slots];
+    hands = new byte[sets];
+    keys = new char[slots * MAX_LENGTH];
+    stems = new char[slots * MAX_LENGTH];
+    AnalysisStats.trackMemory("caches", false, this, ramBytesUsed());
+  }
+
+  /** Heap used by the cache. */
+  public long ramBytesUsed() {
+    return RamUsageEstimator.sizeOf(hashes)
+        + RamUsageEstimator.sizeOf(keyLengths)
+        + RamUsageEstimator.sizeOf(stemLengths)
+        + RamUsageEstimator.sizeOf(referenced)
+        + RamUsageEstimator.sizeOf(hands)
+        + RamUsageEstimator.sizeOf(keys)
+        + RamUsageEstimator.sizeOf(stems);
+  }
+
+  /**
+   * Stems the buffer, from the cache if possible. Negative results of the stemmer are returned but
+   * not cached.
+   */
+  public int stem(char[] s, int len, Stemmer stemmer) {
+    if (len == 0 || len > MAX_LENGTH) {
+      return stemmer.stem(s, len);
+    }
+
+    final int hash = hash(s, len);
+    final int set = hash & mask;
+    final int first = set * WAYS;
+    for (int slot = first; slot < first + WAYS; slot++) {
+      if (hashes[slot] == hash
+          && keyLengths[slot] == len
+          && Arrays.equals(keys, slot * MAX_LENGTH, slot * MAX_LENGTH + len, s, 0, len)) {
+        hits++;
+        referenced[slot] = true;
+        final int stemLength = stemLengths[slot];
+        System.arraycopy(stems, slot * MAX_LENGTH, s, 0, stemLength);
+        return stemLength;
+      }
+    }
+
+    misses++;
+    System.arraycopy(s, 0, key, 0, len);
+    final int stemLength = stemmer.stem(s, len);
+    if (stemLength < 0 || stemLength > MAX_LENGTH) {
+      // nothing to cache, so keep the entries of the set
+      return stemLength;
+    }
+    final int slot = first + victim(set, first);
+    System.arraycopy(key, 0, keys, slot * MAX_LENGTH, len);
+    hashes[slot] = hash;
+    keyLengths[slot] = (byte) len;
+    stemLengths[slot] = (byte) stemLength;
+    referenced[slot] = false;
+    System.arraycopy(s, 0, stems, slot * MAX_LENGTH, stemLength);
+    return stemLength;
+  }
+
+  public long hits() {
+    return hits;
+  }
+
+  public long misses() {
+    return misses;
+  }
+
+  // CLOCK: skip (and clear) recently used entries, take the first empty or unused one
+  private int victim(int set, int first) {
+    int hand = hands[set];
+    while (keyLengths[first + hand] != 0 && referenced[first + hand]) {
+      referenced[first + hand] = false;
+      hand = (hand + 1) % WAYS;
+    }
+    hands[set] = (byte) ((hand + 1) % WAYS);
+    return hand;
+  }
+
+  private static int hash(char[] s, int len) {
+    int h = 0;
+    for (int i = 0; i < len; i++) {
+      h = 31 * h + s[i];
+    }
+    // murmur3 finalizer, the low bits select the set
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+}
@@ -0,0 +1,279 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, memory-mapped dictionary of precomputed stems (surface form to stem).
+ *
+ * <p>The file is an open addressing hash table, so a lookup hashes the term buffer and compares it
+ * with the mapped keys in place, without allocation. Files opened through {@link #open(Path)} are
+ * mapped once per node and shared by all indices and shards; the data lives off-heap in the page
+ * cache.
+ *
+ * <p>File layout (big endian): magic, version, slot count (power of two), entry count, longest
+ * stem, then {@code slot count} pairs of (hash, data offset or -1), then the entries as (key
+ * length, stem length, key chars, stem chars) in UTF-16.
+ *
+ * <p>Build a file from {@code surface<TAB>stem} lines with {@link
+ * cz.monitora.elasticsearch.analyzer.tools.StemDictionaryBuilder}.
+ */
+public final class StemDictionary {
+  private static final int MAGIC = 0x4d534431; // MSD1
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 5 * Integer.BYTES;
+  private static final int SLOT_BYTES = 2 * Integer.BYTES;
+
+  private static final SharedFiles<StemDictionary> OPEN = new SharedFiles<>();
+
+  private final ByteBuffer buffer;
+  private final int mask;
+  private final int size;
+  private final int maxStemLength;
+  private final int dataOffset;
+
+  private StemDictionary(ByteBuffer buffer) {
+    this.buffer = buffer;
+    if (buffer.capacity() < HEADER_BYTES
+        || buffer.getInt(0) != MAGIC
+        || buffer.getInt(Integer.BYTES) != VERSION) {
+      throw new IllegalArgumentException("Not a stem dictionary (version " + VERSION + ")");
+    }
+    final int slots = buffer.getInt(2 * Integer.BYTES);
+    if (slots <= 0
+        || Integer.bitCount(slots) != 1
+        || (long) HEADER_BYTES + (long) slots * SLOT_BYTES > buffer.capacity()) {
+      throw corrupted("slot count " + slots);
+    }
+    mask = slots - 1;
+    size = buffer.getInt(3 * Integer.BYTES);
+    if (size < 0 || size >= slots) {
+      throw corrupted("entry count " + size);
+    }
+    maxStemLength = buffer.getInt(4 * Integer.BYTES);
+    if (maxStemLength < 0 || maxStemLength > Character.MAX_VALUE) {
+      throw corrupted("longest stem " + maxStemLength);
+    }
+    dataOffset = HEADER_BYTES + slots * SLOT_BYTES;
+    checkEntries();
+    AnalysisStats.trackMemory("dictionaries", buffer.isDirect(), this, buffer.capacity());
+  }
+
+  /**
+   * Checks once that every entry lies within the file and that the header counts match the
+   * entries, so that a truncated or corrupted file is rejected here rather than failing lookups,
+   * and that lookups, which stop at an empty slot, always find one.
+   */
+  private void checkEntries() {
+    final int dataBytes = buffer.capacity() - dataOffset;
+    int entries = 0;
+    int longestStem = 0;
+    for (int slot = 0; slot <= mask; slot++) {
+      final int offset = buffer.getInt(HEADER_BYTES + slot * SLOT_BYTES + Integer.BYTES);
+      if (offset < 0) {
+        continue;
+      }
+      if ((long) offset + 2 * Character.BYTES > dataBytes) {
+        throw corrupted("entry offset " + offset);
+      }
+      final int keyLength = buffer.getChar(dataOffset + offset);
+      final int stemLength = buffer.getChar(dataOffset + offset + Character.BYTES);
+      if (offset + (2L + keyLength + stemLength) * Character.BYTES > dataBytes) {
+        throw corrupted("entry at offset " + offset);
+      }
+      entries++;
+      longestStem = Math.max(longestStem, stemLength);
+    }
+    if (entries != size || longestStem != maxStemLength) {
+      throw corrupted(
+          "header says "
+              + size
+              + " entries and longest stem "
+              + maxStemLength
+              + ", found "
+              + entries
+              + " and "
+              + longestStem);
+    }
+  }
+
+  private static IllegalArgumentException corrupted(String detail) {
+    return new IllegalArgumentException("Corrupted stem dictionary, " + detail);
+  }
+
+  /**
+   * Opens a dictionary file, sharing the mapping with every other caller of the same unchanged
+   * file. A changed file is mapped again, see {@link SharedFiles}; it has to be replaced by
+   * renaming a new file over it, as the old mapping stays in use.
+   */
+  public static StemDictionary open(Path path) throws IOException {
+    return OPEN.open(path, "", StemDictionary::map);
+  }
+
+  /** Maps a dictionary file without sharing it. */
+  public static StemDictionary map(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Stem dictionary over 2GB: " + path);
+      }
+      return new StemDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /** Wraps an in-memory dictionary, e.g. the output of {@link #write}. */
+  public static StemDictionary wrap(byte[] bytes) {
+    return new StemDictionary(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+  }
+
+  /** Number of entries. */
+  public int size() {
+    return size;
+  }
+
+  /** Size of the mapped file. */
+  public long sizeInBytes() {
+    return buffer.capacity();
+  }
+
+  /** Longest stem in the dictionary; the term buffer has to have room for it. */
+  public int maxStemLength() {
+    return maxStemLength;
+  }
+
+  /**
+   * Looks the term up and writes its stem into the buffer.
+   *
+   * @param s term buffer, at least {@link #maxStemLength()} long
+   * @param len length of the term
+   * @return length of the stem, or -1 if the term is not in the dictionary
+   */
+  public int lookup(char[] s, int len) {
+    final int hash = hash(s, len);
+    int slot = hash & mask;
+    while (true) {
+      final int position = HEADER_BYTES + slot * SLOT_BYTES;
+      final int offset = buffer.getInt(position + Integer.BYTES);
+      if (offset < 0) {
+        return -1;
+      }
+      if (buffer.getInt(position) == hash && matches(dataOffset + offset, s, len)) {
+        final int entry = dataOffset + offset;
+        final int stemLength = buffer.getChar(entry + Character.BYTES);
+        final int stem = entry + 2 * Character.BYTES + len * Character.BYTES;
+        for (int i = 0; i < stemLength; i++) {
+          s[i] = buffer.getChar(stem + i * Character.BYTES);
+        }
+        return stemLength;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /** Uses the dictionary and falls back to {@code fallback} for unknown terms. */
+  public Stemmer orElse(Stemmer fallback) {
+    return (s, len) -> {
+      final int stemLength = lookup(s, len);
+      return stemLength >= 0 ? stemLength : fallback.stem(s, len);
+    };
+  }
+
+  private boolean matches(int entry, char[] s, int len) {
+    if (buffer.getChar(entry) != len) {
+      return false;
+    }
+    final int key = entry + 2 * Character.BYTES;
+    for (int i = 0; i < len; i++) {
+      if (buffer.getChar(key + i * Character.BYTES) != s[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // part of the file format, do not change without bumping VERSION
+  private static int hash(char[] s, int len) {
+    int h = 0;
+    for (int i = 0; i < len; i++) {
+      h = 31 * h + s[i];
+    }
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /** Writes a dictionary; later entries for the same surface form are ignored. */
+  public static void write(Iterable<Map.Entry<String, String>> entries, OutputStream out)
+      throws IOException {
+    final List<char[]> keys = new ArrayList<>();
+    final List<char[]> stems = new ArrayList<>();
+    final Set<String> seen = new HashSet<>();
+    for (Map.Entry<String, String> entry : entries) {
+      if (entry.getKey().length() > Character.MAX_VALUE
+          || entry.getValue().length() > Character.MAX_VALUE) {
+        throw new IllegalArgumentException("Entry too long: " + entry.getKey());
+      }
+      if (seen.add(entry.getKey())) {
+        keys.add(entry.getKey().toCharArray());
+        stems.add(entry.getValue().toCharArray());
+      }
+    }
+
+    final int slots = Integer.highestOneBit(Math.max(2, keys.size() * 2) * 2 - 1);
+    final int[] slotHashes = new int[slots];
+    final int[] slotOffsets = new int[slots];
+    Arrays.fill(slotOffsets, -1);
+    long offset = 0;
+    int maxStemLength = 0;
+    for (int i = 0; i < keys.size(); i++) {
+      final char[] key = keys.get(i);
+      final int hash = hash(key, key.length);
+      int slot = hash & (slots - 1);
+      while (slotOffsets[slot] >= 0) {
+        slot = (slot + 1) & (slots - 1);
+      }
+      if (offset > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Stem dictionary over 2GB");
+      }
+      slotHashes[slot] = hash;
+      slotOffsets[slot] = (int) offset;
+      offset += (2L + key.length + stems.get(i).length) * Character.BYTES;
+      maxStemLength = Math.max(maxStemLength, stems.get(i).length);
+    }
+
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + slots * SLOT_BYTES);
+    header.order(ByteOrder.BIG_ENDIAN);
+    header.putInt(MAGIC).putInt(VERSION).putInt(slots).putInt(keys.size()).putInt(maxStemLength);
+    for (int slot = 0; slot < slots; slot++) {
+      header.putInt(slotHashes[slot]).putInt(slotOffsets[slot]);
+    }
+    out.write(header.array());
+    for (int i = 0; i < keys.size(); i++) {
+      final char[] key = keys.get(i);
+      final char[] stem = stems.get(i);
+      final ByteBuffer entry =
+          ByteBuffer.allocate((2 + key.length + stem.length) * Character.BYTES);
+      entry.putChar((char) key.length).putChar((char) stem.length);
+      for (char c : key) {
+        entry.putChar(c);
+      }
+      for (char c : stem) {
+        entry.putChar(c);
+      }
+      out.write(entry.array());
+    }
+  }
+}
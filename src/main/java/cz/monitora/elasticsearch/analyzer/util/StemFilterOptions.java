@@ -0,0 +1,254 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import org.apache.lucene.util.AttributeSource;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.analysis.AnalysisMode;
+
+/**
+ * Settings shared by all {@code monitora_*_stem} filters.
+ *
+ * <ul>
+ *   <li>{@code cache_size} - size of the per filter {@link StemCache}, 0 (default) disables it
+ *   <li>{@code dedup_same_position} - drop a token whose term was already emitted at the same
+ *       position, e.g. a lowercased and an original token with the same stem, see {@link
+ *       PositionTerms}
+ *   <li>{@code dictionary_path} - {@link StemDictionary} consulted before the algorithmic stemmer,
+ *       relative to the config directory
+ *   <li>{@code fold_input} - fold every token to ASCII (like a preceding {@code asciifolding}
+ *       filter, keywords included) and stem with the folded rules
+ *   <li>{@code overrides_path} - {@link StemOverrides} consulted before the dictionary and the
+ *       algorithmic stemmer, relative to the config directory
+ *   <li>{@code protected_words_path} - {@link ProtectedWords} that are marked as keywords and not
+ *       stemmed, relative to the config directory
+ *   <li>{@code skip_token_classes} - {@link TokenClass classes} of tokens (numbers, URLs, ...) that
+ *       are marked as keywords and not stemmed, none by default
+ *   <li>{@code token_class_type} - set the type of such tokens to that of their class
+ *   <li>{@code updateable} - the filter may only be used in a search analyzer, which {@code
+ *       _reload_search_analyzers} rebuilds with the current content of the files above, see {@link
+ *       #analysisMode}
+ * </ul>
+ */
+public final class StemFilterOptions {
+  /** No cache, no dictionary. */
+  public static final StemFilterOptions DEFAULT = new StemFilterOptions(0, null, null, false, null);
+
+  private final int cacheSize;
+  private final StemDictionary dictionary;
+  private final StemOverrides overrides;
+  private final boolean foldInput;
+  private final ProtectedWords protectedWords;
+  private final boolean dedupSamePosition;
+  private final Set<TokenClass> skipTokenClasses;
+  private final boolean tokenClassType;
+  private final AnalysisStats stats;
+
+  public StemFilterOptions(
+      int cacheSize,
+      StemDictionary dictionary,
+      StemOverrides overrides,
+      boolean foldInput,
+      ProtectedWords protectedWords) {
+    this(
+        cacheSize,
+        dictionary,
+        overrides,
+        foldInput,
+        protectedWords,
+        false,
+        Set.of(),
+        false,
+        AnalysisStats.NONE);
+  }
+
+  private StemFilterOptions(
+      int cacheSize,
+      StemDictionary dictionary,
+      StemOverrides overrides,
+      boolean foldInput,
+      ProtectedWords protectedWords,
+      boolean dedupSamePosition,
+      Set<TokenClass> skipTokenClasses,
+      boolean tokenClassType,
+      AnalysisStats stats) {
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("[cache_size] must not be negative, got " + cacheSize);
+    }
+    this.cacheSize = cacheSize;
+    this.dictionary = dictionary;
+    this.overrides = overrides;
+    this.foldInput = foldInput;
+    this.protectedWords = protectedWords;
+    this.dedupSamePosition = dedupSamePosition;
+    this.skipTokenClasses =
+        skipTokenClasses.isEmpty()
+            ? Set.of()
+            : Collections.unmodifiableSet(EnumSet.copyOf(skipTokenClasses));
+    this.tokenClassType = tokenClassType;
+    this.stats = stats;
+  }
+
+  /** The same options, with filters counting in {@code stats}. */
+  public StemFilterOptions withStats(AnalysisStats stats) {
+    return new StemFilterOptions(
+        cacheSize,
+        dictionary,
+        overrides,
+        foldInput,
+        protectedWords,
+        dedupSamePosition,
+        skipTokenClasses,
+        tokenClassType,
+        stats);
+  }
+
+  /** The same options, with filters dropping duplicate terms at the same position or not. */
+  public StemFilterOptions withDedupSamePosition(boolean dedupSamePosition) {
+    return new StemFilterOptions(
+        cacheSize,
+        dictionary,
+        overrides,
+        foldInput,
+        protectedWords,
+        dedupSamePosition,
+        skipTokenClasses,
+        tokenClassType,
+        stats);
+  }
+
+  /**
+   * The same options, with filters skipping tokens of {@code classes}.
+   *
+   * @param setType whether the type of such tokens is set to that of their class
+   */
+  public StemFilterOptions withSkipTokenClasses(Set<TokenClass> classes, boolean setType) {
+    return new StemFilterOptions(
+        cacheSize,
+        dictionary,
+        overrides,
+        foldInput,
+        protectedWords,
+        dedupSamePosition,
+        classes,
+        setType,
+        stats);
+  }
+
+  public static StemFilterOptions fromSettings(Environment env, Settings settings) {
+    final int cacheSize = settings.getAsInt("cache_size", 0);
+    final String dictionaryPath = settings.get("dictionary_path");
+    StemDictionary dictionary = null;
+    if (dictionaryPath != null) {
+      try {
+        dictionary = StemDictionary.open(env.configFile().resolve(dictionaryPath));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot open [dictionary_path] " + dictionaryPath, e);
+      }
+    }
+    final boolean foldInput = settings.getAsBoolean("fold_input", false);
+    final String overridesPath = settings.get("overrides_path");
+    StemOverrides overrides = null;
+    if (overridesPath != null) {
+      try {
+        overrides = StemOverrides.open(env.configFile().resolve(overridesPath), foldInput);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot read [overrides_path] " + overridesPath, e);
+      }
+    }
+    final String protectedWordsPath = settings.get("protected_words_path");
+    ProtectedWords protectedWords = null;
+    if (protectedWordsPath != null) {
+      try {
+        protectedWords =
+            ProtectedWords.open(env.configFile().resolve(protectedWordsPath), foldInput);
+      } catch (IOException e) {
+        throw new UncheckedIOException(
+            "Cannot read [protected_words_path] " + protectedWordsPath, e);
+      }
+    }
+    return new StemFilterOptions(
+        cacheSize,
+        dictionary,
+        overrides,
+        foldInput,
+        protectedWords,
+        settings.getAsBoolean("dedup_same_position", false),
+        TokenClass.parse(settings.getAsList("skip_token_classes")),
+        settings.getAsBoolean("token_class_type", false),
+        AnalysisStats.NONE);
+  }
+
+  /**
+   * The analysis mode of a stem filter: {@link AnalysisMode#SEARCH_TIME} with {@code updateable},
+   * so that the filter is rebuilt by {@code _reload_search_analyzers} and picks up changed {@code
+   * overrides_path}, {@code protected_words_path} and {@code dictionary_path} files, otherwise
+   * {@link AnalysisMode#ALL}.
+   */
+  public static AnalysisMode analysisMode(Settings settings) {
+    return settings.getAsBoolean("updateable", false) ? AnalysisMode.SEARCH_TIME : AnalysisMode.ALL;
+  }
+
+  /** Whether tokens are folded to ASCII, the stemmer has to expect folded input. */
+  public boolean foldInput() {
+    return foldInput;
+  }
+
+  /** A new folder for one filter instance, or null if folding is disabled. */
+  public ASCIIFolder newFolder() {
+    return foldInput ? new ASCIIFolder() : null;
+  }
+
+  /** Words that are not stemmed, or null if there are none. */
+  public ProtectedWords protectedWords() {
+    return protectedWords;
+  }
+
+  /**
+   * Puts the overrides and the dictionary, if any, in front of the algorithmic stemmer. The
+   * returned stemmer is for one filter instance.
+   */
+  public Stemmer stemmer(Stemmer algorithmic) {
+    final Stemmer stemmer = dictionary == null ? algorithmic : dictionary.orElse(algorithmic);
+    return overrides == null ? stemmer : overrides.orElse(stemmer);
+  }
+
+  /** A new cache for one filter instance, or null if caching is disabled. */
+  public StemCache newCache() {
+    return cacheSize > 0 ? new StemCache(cacheSize) : null;
+  }
+
+  /**
+   * The terms emitted at the current position by the filter of {@code source}, or null if
+   * duplicates are kept.
+   */
+  public PositionTerms newPositionTerms(AttributeSource source) {
+    return dedupSamePosition ? new PositionTerms(source) : null;
+  }
+
+  /**
+   * A classifier of the tokens of the filter of {@code source}, or null if no token classes are
+   * skipped.
+   */
+  public TokenClassifier newClassifier(AttributeSource source, AnalysisStats.Recorder recorder) {
+    return skipTokenClasses.isEmpty()
+        ? null
+        : new TokenClassifier(source, skipTokenClasses, tokenClassType, recorder);
+  }
+
+  /** A new recorder for one filter instance. */
+  public AnalysisStats.Recorder newRecorder() {
+    return stats.newRecorder();
+  }
+
+  /** Room the term buffer needs for the stems, beyond the length of the token. */
+  public int minBufferLength() {
+    return Math.max(
+        dictionary == null ? 0 : dictionary.maxStemLength(),
+        overrides == null ? 0 : overrides.maxStemLength());
+  }
+}
@@ -0,0 +1,272 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.FSTCompiler;
+import org.apache.lucene.util.fst.Outputs;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+
+/**
+ * Immutable table of hand-fixed stems (surface form to stem), consulted before the algorithmic
+ * stemmer.
+ *
+ * <p>The surface forms are compiled into an {@link FST} over UTF-16 code units whose output is
+ * the ordinal of the stem in one {@code char[]} of distinct stems. The common prefixes and
+ * suffixes of hundreds of thousands of forms are stored once, and a lookup walks the term buffer
+ * and copies the stem back without allocation. Tables loaded through {@link #open(Path, boolean)}
+ * are shared by all indices and shards on the node.
+ */
+public final class StemOverrides {
+  private static final SharedFiles<StemOverrides> OPEN = new SharedFiles<>();
+
+  // null if empty
+  private final FST<Long> fst;
+  private final char[] stems;
+  // start of stem i in stems, plus the end of the last stem
+  private final int[] stemStarts;
+  private final int size;
+  private final int maxStemLength;
+
+  private StemOverrides(
+      FST<Long> fst, char[] stems, int[] stemStarts, int size, int maxStemLength) {
+    this.fst = fst;
+    this.stems = stems;
+    this.stemStarts = stemStarts;
+    this.size = size;
+    this.maxStemLength = maxStemLength;
+    AnalysisStats.trackMemory("overrides", false, this, ramBytesUsed());
+  }
+
+  /**
+   * Builds a table; empty forms are ignored and the first entry for a surface form wins.
+   *
+   * @param asciiFold fold forms and stems to ASCII, for filters that fold their input
+   */
+  public static StemOverrides of(Iterable<Map.Entry<String, String>> entries, boolean asciiFold)
+      throws IOException {
+    final TreeMap<String, String> sorted = new TreeMap<>();
+    for (Map.Entry<String, String> entry : entries) {
+      final String surface = asciiFold ? ASCIIFolder.fold(entry.getKey()) : entry.getKey();
+      final String stem = asciiFold ? ASCIIFolder.fold(entry.getValue()) : entry.getValue();
+      if (!surface.isEmpty()) {
+        sorted.putIfAbsent(surface, stem);
+      }
+    }
+
+    // stems are deduplicated, many forms share one
+    final Map<String, Integer> ordinals = new HashMap<>();
+    final StringBuilder pool = new StringBuilder();
+    final List<Integer> starts = new ArrayList<>();
+    int maxStemLength = 0;
+    for (String stem : sorted.values()) {
+      if (ordinals.putIfAbsent(stem, ordinals.size()) == null) {
+        starts.add(pool.length());
+        pool.append(stem);
+        maxStemLength = Math.max(maxStemLength, stem.length());
+      }
+    }
+    final int[] stemStarts = new int[starts.size() + 1];
+    for (int i = 0; i < starts.size(); i++) {
+      stemStarts[i] = starts.get(i);
+    }
+    stemStarts[starts.size()] = pool.length();
+    final char[] stems = new char[pool.length()];
+    pool.getChars(0, pool.length(), stems, 0);
+
+    if (sorted.isEmpty()) {
+      return new StemOverrides(null, stems, stemStarts, 0, 0);
+    }
+    final FSTCompiler<Long> compiler =
+        new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE2, new OrdinalOutputs(ordinals.size()))
+            .build();
+    final IntsRefBuilder scratch = new IntsRefBuilder();
+    // TreeMap iterates in UTF-16 order, as the compiler requires
+    for (Map.Entry<String, String> entry : sorted.entrySet()) {
+      final long ordinal = ordinals.get(entry.getValue());
+      compiler.add(Util.toUTF16(entry.getKey(), scratch), ordinal);
+    }
+    final FST<Long> fst = FST.fromFSTReader(compiler.compile(), compiler.getFSTReader());
+    return new StemOverrides(fst, stems, stemStarts, sorted.size(), maxStemLength);
+  }
+
+  /**
+   * Loads {@code surface<TAB>stem} lines, UTF-8; lines without a tab and lines starting with
+   * {@code #} are skipped. The table is shared with every other caller of the same unchanged file,
+   * a changed file is loaded again, see {@link SharedFiles}.
+   */
+  public static StemOverrides open(Path path, boolean asciiFold) throws IOException {
+    return OPEN.open(path, String.valueOf(asciiFold), real -> load(real, asciiFold));
+  }
+
+  private static StemOverrides load(Path path, boolean asciiFold) throws IOException {
+    final List<Map.Entry<String, String>> entries = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final int tab = line.indexOf('\t');
+        if (tab > 0 && line.charAt(0) != '#') {
+          final int end = line.indexOf('\t', tab + 1);
+          final String stem = line.substring(tab + 1, end < 0 ? line.length() : end);
+          entries.add(Map.entry(line.substring(0, tab), stem));
+        }
+      }
+    }
+    return of(entries, asciiFold);
+  }
+
+  /** Number of surface forms. */
+  public int size() {
+    return size;
+  }
+
+  /** Heap used by the FST and the stems. */
+  public long ramBytesUsed() {
+    return (fst == null ? 0 : fst.ramBytesUsed())
+        + (long) stems.length * Character.BYTES
+        + (long) stemStarts.length * Integer.BYTES;
+  }
+
+  /** Longest stem; the term buffer has to have room for it. */
+  public int maxStemLength() {
+    return maxStemLength;
+  }
+
+  /**
+   * Uses the overrides and falls back to {@code fallback} for other terms. The returned stemmer
+   * keeps its own FST cursor, use one per filter instance.
+   */
+  public Stemmer orElse(Stemmer fallback) {
+    if (fst == null) {
+      return fallback;
+    }
+    final FST.Arc<Long> arc = new FST.Arc<>();
+    final FST.BytesReader reader = fst.getBytesReader();
+    return (s, len) -> {
+      final int stemLength = lookup(s, len, arc, reader);
+      return stemLength >= 0 ? stemLength : fallback.stem(s, len);
+    };
+  }
+
+  /**
+   * Looks the term up and writes its stem into the buffer.
+   *
+   * @param s term buffer, at least {@link #maxStemLength()} long
+   * @param len length of the term
+   * @param arc scratch arc
+   * @param reader reader of this FST, not shared between threads
+   * @return length of the stem, or -1 if the term is not in the table
+   */
+  int lookup(char[] s, int len, FST.Arc<Long> arc, FST.BytesReader reader) {
+    if (len == 0) {
+      return -1;
+    }
+    fst.getFirstArc(arc);
+    long ordinal = 0;
+    try {
+      for (int i = 0; i < len; i++) {
+        if (fst.findTargetArc(s[i], arc, arc, reader) == null) {
+          return -1;
+        }
+        // summed unboxed, outputs.add would box every partial sum
+        ordinal += arc.output();
+      }
+    } catch (IOException e) {
+      // the FST is on heap
+      throw new UncheckedIOException(e);
+    }
+    if (!arc.isFinal()) {
+      return -1;
+    }
+    ordinal += arc.nextFinalOutput();
+    final int start = stemStarts[(int) ordinal];
+    final int stemLength = stemStarts[(int) ordinal + 1] - start;
+    System.arraycopy(stems, start, s, 0, stemLength);
+    return stemLength;
+  }
+
+  /**
+   * {@link PositiveIntOutputs} for stem ordinals that reuse the boxed values read from the FST.
+   * Every output on the arcs lies between 0 and the number of stems, so a lookup does not allocate
+   * once each value has been read.
+   */
+  private static final class OrdinalOutputs extends Outputs<Long> {
+    private static final PositiveIntOutputs POSITIVE = PositiveIntOutputs.getSingleton();
+
+    private final Long[] values;
+
+    OrdinalOutputs(int size) {
+      values = new Long[size];
+    }
+
+    @Override
+    public Long read(DataInput in) throws IOException {
+      final long v = in.readVLong();
+      if (v == 0) {
+        return POSITIVE.getNoOutput();
+      }
+      if (v >= values.length) {
+        return v;
+      }
+      Long value = values[(int) v];
+      if (value == null) {
+        // racy but benign, Long is immutable
+        values[(int) v] = value = v;
+      }
+      return value;
+    }
+
+    @Override
+    public void skipOutput(DataInput in) throws IOException {
+      in.readVLong();
+    }
+
+    @Override
+    public void write(Long output, DataOutput out) throws IOException {
+      POSITIVE.write(output, out);
+    }
+
+    @Override
+    public Long common(Long output1, Long output2) {
+      return POSITIVE.common(output1, output2);
+    }
+
+    @Override
+    public Long subtract(Long output, Long inc) {
+      return POSITIVE.subtract(output, inc);
+    }
+
+    @Override
+    public Long add(Long prefix, Long output) {
+      return POSITIVE.add(prefix, output);
+    }
+
+    @Override
+    public Long getNoOutput() {
+      return POSITIVE.getNoOutput();
+    }
+
+    @Override
+    public String outputToString(Long output) {
+      return POSITIVE.outputToString(output);
+    }
+
+    @Override
+    public long ramBytesUsed(Long output) {
+      return POSITIVE.ramBytesUsed(output);
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+/** Stems a term buffer in place. */
+@FunctionalInterface
+public interface Stemmer {
+  /**
+   * @param s input buffer
+   * @param len length of input buffer
+   * @return length of input buffer after stemming
+   */
+  int stem(char[] s, int len);
+}
@@ -0,0 +1,446 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * Suffix stripping stemmer compiled from a declarative rule file.
+ *
+ * <p>A rule file is a list of stages. Every stage is compiled into {@link SuffixTrie}s, so applying
+ * a stage is one backwards walk over the term buffer no matter how many rules it has. Of all rules
+ * whose suffix matches, the first one (in file order) whose conditions hold is applied.
+ *
+ * <pre>
+ * # comment
+ * vowels aeiou                    letters used to compute the R1 region (optional)
+ * pipeline case possessive        stages applied to every token, in order
+ * stage case                      starts a stage
+ * len&gt;5 : ech ich : -3            conditions : suffixes : action [stage]
+ * </pre>
+ *
+ * <ul>
+ *   <li>Conditions are {@code len>N}, {@code len>=N}, {@code len=N,M} on the length of the whole
+ *       token, {@code r1} (the suffix lies in the R1 region) or {@code -} for none.
+ *   <li>Suffixes are separated by spaces; a trailing {@code .} matches any character.
+ *   <li>The action {@code -N} drops N characters, {@code =text} replaces the matched suffix ({@code
+ *       .} in the text copies the character matched by the corresponding {@code .}). The result
+ *       never grows.
+ *   <li>An optional stage name after the action is applied to the result, as a palatalization step
+ *       would be.
+ * </ul>
+ *
+ * <p>Instances are immutable and thread-safe; stemming does not allocate.
+ */
+public final class SuffixRuleStemmer {
+  private final Stage[] pipeline;
+  private final char[] vowels;
+
+  private SuffixRuleStemmer(Stage[] pipeline, char[] vowels) {
+    this.pipeline = pipeline;
+    this.vowels = vowels;
+    AnalysisStats.trackMemory("rule_tables", false, this, ramBytesUsed());
+  }
+
+  /** Loads a rule file stored as a UTF-8 resource next to {@code owner}. */
+  public static SuffixRuleStemmer load(Class<?> owner, String resource) {
+    return load(owner, resource, false);
+  }
+
+  /**
+   * Loads a rule file stored as a UTF-8 resource next to {@code owner}.
+   *
+   * @param asciiFold fold the rules with {@link ASCIIFolder} to stem input folded the same way
+   */
+  public static SuffixRuleStemmer load(Class<?> owner, String resource, boolean asciiFold) {
+    try (InputStream in = owner.getResourceAsStream(resource)) {
+      if (in == null) {
+        throw new IllegalArgumentException("Missing stemmer rules: " + resource);
+      }
+      return parse(new InputStreamReader(in, StandardCharsets.UTF_8), resource, asciiFold);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read stemmer rules: " + resource, e);
+    }
+  }
+
+  /** Parses and compiles rules; {@code name} is only used in error messages. */
+  public static SuffixRuleStemmer parse(Reader reader, String name) throws IOException {
+    return parse(reader, name, false);
+  }
+
+  /**
+   * Parses and compiles rules, optionally folded to ASCII. Folded suffixes that collide keep the
+   * first rule, as for any other duplicate suffix.
+   */
+  public static SuffixRuleStemmer parse(Reader reader, String name, boolean asciiFold)
+      throws IOException {
+    return new Parser(name, asciiFold).parse(new BufferedReader(reader));
+  }
+
+  /**
+   * Stem an input buffer.
+   *
+   * @param s input buffer
+   * @param len length of input buffer
+   * @return length of input buffer after stemming
+   */
+  public int stem(char[] s, int len) {
+    for (Stage stage : pipeline) {
+      len = apply(stage, s, len);
+    }
+    return len;
+  }
+
+  /** Heap used by the compiled rules. */
+  public long ramBytesUsed() {
+    final Set<Stage> stages = Collections.newSetFromMap(new IdentityHashMap<>());
+    final List<Stage> pending = new ArrayList<>(Arrays.asList(pipeline));
+    long bytes = RamUsageEstimator.sizeOf(vowels);
+    while (!pending.isEmpty()) {
+      final Stage stage = pending.remove(pending.size() - 1);
+      if (!stages.add(stage)) {
+        continue;
+      }
+      for (Rule rule : stage.byId) {
+        bytes += RULE_BYTES;
+        if (rule.replacement != null) {
+          bytes += RamUsageEstimator.sizeOf(rule.replacement);
+        }
+        if (rule.then != null) {
+          pending.add(rule.then);
+        }
+      }
+      for (int t = 0; t < stage.tries.length; t++) {
+        bytes +=
+            stage.tries[t].ramBytesUsed()
+                + RamUsageEstimator.sizeOf(stage.first[t])
+                + RamUsageEstimator.sizeOf(stage.rules[t]);
+      }
+    }
+    return bytes;
+  }
+
+  private int apply(Stage stage, char[] s, int len) {
+    int best = Integer.MAX_VALUE;
+    int r1 = -1;
+    for (int t = 0; t < stage.tries.length; t++) {
+      final SuffixTrie trie = stage.tries[t];
+      final int end = len - stage.wildcards[t];
+      if (end < 0) {
+        continue;
+      }
+      int node = SuffixTrie.ROOT;
+      int depth = 0;
+      while (true) {
+        for (int i = stage.first[t][node]; i < stage.first[t][node + 1]; i++) {
+          final int id = stage.rules[t][i];
+          if (id >= best) {
+            break;
+          }
+          final Rule rule = stage.byId[id];
+          if (rule.r1 && r1 < 0) {
+            r1 = r1(s, len);
+          }
+          if (rule.accepts(len, r1)) {
+            best = id;
+            break;
+          }
+        }
+        if (depth == end || depth == trie.maxDepth()) {
+          break;
+        }
+        node = trie.step(node, s[end - 1 - depth]);
+        if (node == SuffixTrie.NONE) {
+          break;
+        }
+        depth++;
+      }
+    }
+    if (best == Integer.MAX_VALUE) {
+      return len;
+    }
+
+    final Rule rule = stage.byId[best];
+    final int start = len - rule.strip;
+    for (int i = 0; i < rule.replacement.length; i++) {
+      final int source = rule.replacement[i];
+      s[start + i] = source >= 0 ? (char) source : s[len + source];
+    }
+    len = start + rule.replacement.length;
+    return rule.then == null ? len : apply(rule.then, s, len);
+  }
+
+  // R1: the region after the first non-vowel following a vowel
+  private int r1(char[] s, int len) {
+    boolean foundVowel = false;
+    for (int i = 0; i < len; i++) {
+      if (Arrays.binarySearch(vowels, s[i]) >= 0) {
+        foundVowel = true;
+      } else if (foundVowel) {
+        return i + 1;
+      }
+    }
+    return len;
+  }
+
+  private static final long RULE_BYTES = RamUsageEstimator.shallowSizeOfInstance(Rule.class);
+
+  private static final class Rule {
+    int minLength;
+    long exactLengths;
+    boolean r1;
+    int suffixLength;
+    int strip;
+    // literal characters, or negative offsets from the end of the token for copied characters
+    int[] replacement;
+    Stage then;
+
+    boolean accepts(int len, int r1Start) {
+      return len >= minLength
+          && (exactLengths == 0 || (len < 64 && (exactLengths & (1L << len)) != 0))
+          && (!r1 || len - suffixLength >= r1Start);
+    }
+  }
+
+  private static final class Stage {
+    Rule[] byId;
+    // one trie per number of trailing wildcards, rule ids sorted per node
+    SuffixTrie[] tries;
+    int[] wildcards;
+    int[][] first;
+    int[][] rules;
+  }
+
+  private static final class Parser {
+    private final String name;
+    private final boolean asciiFold;
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final Map<Stage, List<Rule>> rules = new LinkedHashMap<>();
+    private final Map<Stage, List<String>> suffixes = new LinkedHashMap<>();
+    private final Map<Rule, String> calls = new LinkedHashMap<>();
+    private String[] pipeline = new String[0];
+    private char[] vowels = new char[0];
+    private int lineNumber;
+
+    Parser(String name, boolean asciiFold) {
+      this.name = name;
+      this.asciiFold = asciiFold;
+    }
+
+    SuffixRuleStemmer parse(BufferedReader reader) throws IOException {
+      Stage current = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        final int comment = line.indexOf('#');
+        line = (comment >= 0 ? line.substring(0, comment) : line).trim();
+        if (line.isEmpty()) {
+          continue;
+        }
+        if (asciiFold) {
+          final String folded = ASCIIFolder.fold(line);
+          if (folded.length() != line.length()) {
+            // actions count characters, they would not match the folded suffixes
+            throw error("folding to ASCII changes the length: " + line);
+          }
+          line = folded;
+        }
+        final String[] words = line.split("\\s+");
+        if (words[0].equals("vowels") && words.length == 2) {
+          vowels = words[1].toCharArray();
+          Arrays.sort(vowels);
+        } else if (words[0].equals("pipeline")) {
+          pipeline = Arrays.copyOfRange(words, 1, words.length);
+        } else if (words[0].equals("stage") && words.length == 2) {
+          current = stage(words[1]);
+        } else if (current == null) {
+          throw error("rule outside of a stage");
+        } else {
+          parseRule(current, line);
+        }
+      }
+
+      final Stage[] compiled = new Stage[pipeline.length];
+      for (int i = 0; i < pipeline.length; i++) {
+        compiled[i] = existing(pipeline[i]);
+      }
+      for (Map.Entry<Rule, String> call : calls.entrySet()) {
+        call.getKey().then = existing(call.getValue());
+      }
+      for (Stage stage : stages.values()) {
+        compile(stage);
+      }
+      return new SuffixRuleStemmer(compiled, vowels);
+    }
+
+    private Stage stage(String stageName) {
+      final Stage stage = stages.computeIfAbsent(stageName, k -> new Stage());
+      rules.computeIfAbsent(stage, k -> new ArrayList<>());
+      suffixes.computeIfAbsent(stage, k -> new ArrayList<>());
+      return stage;
+    }
+
+    private Stage existing(String stageName) {
+      final Stage stage = stages.get(stageName);
+      if (stage == null) {
+        throw new IllegalArgumentException(name + ": unknown stage [" + stageName + "]");
+      }
+      return stage;
+    }
+
+    private void parseRule(Stage stage, String line) {
+      final String[] parts = line.split(":");
+      if (parts.length != 3) {
+        throw error("expected <conditions> : <suffixes> : <action>");
+      }
+      final String[] action = parts[2].trim().split("\\s+");
+      if (action.length > 2) {
+        throw error("expected <action> [stage]");
+      }
+      for (String suffix : parts[1].trim().split("\\s+")) {
+        final Rule rule = new Rule();
+        parseConditions(rule, parts[0].trim());
+        parseAction(rule, suffix, action[0]);
+        if (action.length == 2) {
+          calls.put(rule, action[1]);
+        }
+        rules.get(stage).add(rule);
+        suffixes.get(stage).add(suffix);
+      }
+    }
+
+    private void parseConditions(Rule rule, String conditions) {
+      for (String condition : conditions.split("\\s+")) {
+        try {
+          if (condition.equals("-")) {
+            continue;
+          } else if (condition.equals("r1")) {
+            rule.r1 = true;
+          } else if (condition.startsWith("len>=")) {
+            rule.minLength = Math.max(rule.minLength, Integer.parseInt(condition.substring(5)));
+          } else if (condition.startsWith("len>")) {
+            rule.minLength = Math.max(rule.minLength, Integer.parseInt(condition.substring(4)) + 1);
+          } else if (condition.startsWith("len=")) {
+            for (String length : condition.substring(4).split(",")) {
+              final int value = Integer.parseInt(length);
+              if (value < 0 || value >= 64) {
+                throw error("exact length out of range: " + condition);
+              }
+              rule.exactLengths |= 1L << value;
+            }
+          } else {
+            throw error("unknown condition: " + condition);
+          }
+        } catch (NumberFormatException e) {
+          throw error("invalid condition: " + condition);
+        }
+      }
+    }
+
+    private void parseAction(Rule rule, String suffix, String action) {
+      final int wildcards = suffix.length() - suffix.replaceAll("\\.+$", "").length();
+      if (suffix.substring(0, suffix.length() - wildcards).indexOf('.') >= 0) {
+        throw error("'.' is only allowed at the end of a suffix: " + suffix);
+      }
+      rule.suffixLength = suffix.length();
+      if (action.startsWith("-")) {
+        try {
+          rule.strip = Integer.parseInt(action.substring(1));
+        } catch (NumberFormatException e) {
+          throw error("invalid action: " + action);
+        }
+        if (rule.strip > suffix.length()) {
+          throw error("cannot drop more than the suffix: " + action);
+        }
+        rule.replacement = new int[0];
+      } else if (action.startsWith("=")) {
+        final String text = action.substring(1);
+        if (text.length() > suffix.length()) {
+          throw error("replacement longer than the suffix: " + action);
+        }
+        rule.strip = suffix.length();
+        rule.replacement = new int[text.length()];
+        int wildcard = suffix.length() - wildcards;
+        for (int i = 0; i < text.length(); i++) {
+          final char c = text.charAt(i);
+          if (c != '.') {
+            rule.replacement[i] = c;
+          } else if (wildcard < suffix.length()) {
+            // copied characters must not be overwritten before they are read
+            if (wildcard < i) {
+              throw error("'.' moves to the right: " + action);
+            }
+            rule.replacement[i] = wildcard++ - suffix.length();
+          } else {
+            throw error("more '.' in the replacement than in the suffix: " + action);
+          }
+        }
+      } else {
+        throw error("invalid action: " + action);
+      }
+    }
+
+    private void compile(Stage stage) {
+      final List<Rule> stageRules = rules.get(stage);
+      final List<String> stageSuffixes = suffixes.get(stage);
+      stage.byId = stageRules.toArray(new Rule[0]);
+
+      final Map<Integer, SuffixTrie.Builder> builders = new LinkedHashMap<>();
+      final Map<Integer, Map<Integer, List<Integer>>> nodes = new LinkedHashMap<>();
+      for (int id = 0; id < stage.byId.length; id++) {
+        final String suffix = stageSuffixes.get(id);
+        final String literal = suffix.replaceAll("\\.+$", "");
+        final int wildcards = suffix.length() - literal.length();
+        final int node =
+            builders.computeIfAbsent(wildcards, k -> new SuffixTrie.Builder()).add(literal);
+        nodes
+            .computeIfAbsent(wildcards, k -> new LinkedHashMap<>())
+            .computeIfAbsent(node, k -> new ArrayList<>())
+            .add(id);
+      }
+
+      final int count = builders.size();
+      stage.tries = new SuffixTrie[count];
+      stage.wildcards = new int[count];
+      stage.first = new int[count][];
+      stage.rules = new int[count][];
+      int t = 0;
+      for (Map.Entry<Integer, SuffixTrie.Builder> entry : builders.entrySet()) {
+        final SuffixTrie trie = entry.getValue().build();
+        final Map<Integer, List<Integer>> ids = nodes.get(entry.getKey());
+        final int[] first = new int[trie.size() + 1];
+        final int[] flat = new int[ids.values().stream().mapToInt(List::size).sum()];
+        int next = 0;
+        for (int node = 0; node < trie.size(); node++) {
+          first[node] = next;
+          for (int id : ids.getOrDefault(node, List.of())) {
+            flat[next++] = id;
+          }
+        }
+        first[trie.size()] = next;
+        stage.tries[t] = trie;
+        stage.wildcards[t] = entry.getKey();
+        stage.first[t] = first;
+        stage.rules[t] = flat;
+        t++;
+      }
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(name + ":" + lineNumber + ": " + message);
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * Immutable trie over reversed suffixes. Walking it from the end of a term buffer towards its start
+ * visits, at depth {@code d}, the node of the suffix made of the last {@code d} characters.
+ *
+ * <p>Nodes are plain {@code int} ids assigned by the {@link Builder}, so callers keep whatever data
+ * they attach to a suffix in their own arrays indexed by node id. Children are stored in flat,
+ * sorted arrays and looked up by binary search; stepping through the trie never allocates.
+ */
+public final class SuffixTrie {
+  /** Id of the root node (the empty suffix). */
+  public static final int ROOT = 0;
+
+  /** Returned by {@link #step} when there is no transition. */
+  public static final int NONE = -1;
+
+  private final int[] first;
+  private final char[] labels;
+  private final int[] targets;
+  private final int maxDepth;
+
+  private SuffixTrie(int[] first, char[] labels, int[] targets, int maxDepth) {
+    this.first = first;
+    this.labels = labels;
+    this.targets = targets;
+    this.maxDepth = maxDepth;
+  }
+
+  /** Number of nodes, i.e. the length of arrays that attach data to nodes. */
+  public int size() {
+    return first.length - 1;
+  }
+
+  /** Heap used by the trie. */
+  public long ramBytesUsed() {
+    return RamUsageEstimator.sizeOf(first)
+        + RamUsageEstimator.sizeOf(labels)
+        + RamUsageEstimator.sizeOf(targets);
+  }
+
+  /** Length of the longest suffix in the trie. */
+  public int maxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Follows the transition for the next character (read right to left).
+   *
+   * @return the child node, or {@link #NONE}
+   */
+  public int step(int node, char c) {
+    int lo = first[node];
+    int hi = first[node + 1] - 1;
+    while (lo <= hi) {
+      final int mid = (lo + hi) >>> 1;
+      final char label = labels[mid];
+      if (label < c) {
+        lo = mid + 1;
+      } else if (label > c) {
+        hi = mid - 1;
+      } else {
+        return targets[mid];
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Walks the suffix {@code s[start, end)} from its last character.
+   *
+   * @return the node of the whole suffix, or {@link #NONE} if it is not a path in the trie
+   */
+  public int walk(char[] s, int start, int end) {
+    int node = ROOT;
+    for (int i = end - 1; i >= start && node != NONE; i--) {
+      node = step(node, s[i]);
+    }
+    return node;
+  }
+
+  /** Mutable builder; node ids handed out by {@link #add} stay valid in the built trie. */
+  public static final class Builder {
+    private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+    private int maxDepth;
+
+    public Builder() {
+      children.add(new TreeMap<>());
+    }
+
+    /**
+     * Adds a suffix (the empty string maps to {@link #ROOT}).
+     *
+     * @return id of the node that represents the suffix
+     */
+    public int add(CharSequence suffix) {
+      int node = ROOT;
+      for (int i = suffix.length() - 1; i >= 0; i--) {
+        final int parent = node;
+        node =
+            children
+                .get(parent)
+                .computeIfAbsent(
+                    suffix.charAt(i),
+                    c -> {
+                      children.add(new TreeMap<>());
+                      return children.size() - 1;
+                    });
+      }
+      maxDepth = Math.max(maxDepth, suffix.length());
+      return node;
+    }
+
+    /** Current number of nodes. */
+    public int size() {
+      return children.size();
+    }
+
+    public SuffixTrie build() {
+      final int size = children.size();
+      final int[] first = new int[size + 1];
+      final char[] labels = new char[size - 1];
+      final int[] targets = new int[size - 1];
+      int edge = 0;
+      for (int node = 0; node < size; node++) {
+        first[node] = edge;
+        for (var entry : children.get(node).entrySet()) {
+          labels[edge] = entry.getKey();
+          targets[edge] = entry.getValue();
+          edge++;
+        }
+      }
+      first[size] = edge;
+      return new SuffixTrie(first, labels, targets, maxDepth);
+    }
+  }
+}
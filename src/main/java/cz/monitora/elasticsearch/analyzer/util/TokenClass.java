@@ -0,0 +1,65 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** Shapes of tokens that are never inflected words, recognized by {@link TokenClassifier}. */
+public enum TokenClass {
+  /** {@code https://...}, {@code ftp://...}, {@code www....} */
+  URL("<URL>"),
+  /** {@code name@example.com} */
+  EMAIL("<EMAIL>"),
+  /** {@code #tag} */
+  HASHTAG("<HASHTAG>"),
+  /** {@code $AAPL}, {@code $BRK.B} */
+  TICKER("<TICKER>"),
+  /** {@code 18.10.2026}, {@code 18.10.}, {@code 2026-10-18}, {@code 10/18/26} */
+  DATE("<DATE>"),
+  /** Digits without letters: {@code 42}, {@code -3,14}, {@code 1.000.000}, {@code 12:30}, ... */
+  NUMBER("<NUM>"),
+  /** Letters and digits mixed: {@code A320}, {@code covid19}, {@code 5G}, ... */
+  MIXED("<MIXED>");
+
+  private final String type;
+
+  TokenClass(String type) {
+    this.type = type;
+  }
+
+  /** The token type set for the class, if enabled. */
+  public String type() {
+    return type;
+  }
+
+  /** The name of the class in settings, e.g. {@code url}. */
+  public String settingName() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * The classes of their setting names.
+   *
+   * @throws IllegalArgumentException for an unknown name
+   */
+  public static Set<TokenClass> parse(Collection<String> names) {
+    final Set<TokenClass> classes = EnumSet.noneOf(TokenClass.class);
+    for (String name : names) {
+      try {
+        classes.add(valueOf(name.toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+            "Unknown token class ["
+                + name
+                + "] in [skip_token_classes], expected one of "
+                + Stream.of(values())
+                    .map(c -> "[" + c.settingName() + "]")
+                    .collect(Collectors.joining(", ")));
+      }
+    }
+    return classes;
+  }
+}
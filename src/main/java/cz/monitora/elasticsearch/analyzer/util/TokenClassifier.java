@@ -0,0 +1,164 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import java.util.Set;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.AttributeSource;
+
+/**
+ * Recognizes tokens of the {@link TokenClass classes} set in {@code skip_token_classes}, which the
+ * stem filters leave unstemmed: numbers, dates, URLs, e-mails, hashtags, tickers and mixed letters
+ * and digits. The shape of a token is read from the term buffer in a single pass, without regular
+ * expressions, so a long URL costs no more than a scan. Use one instance per filter.
+ *
+ * <p>Classes are checked in the order of {@link TokenClass} and the first that matches wins, e.g.
+ * an e-mail with digits is an e-mail, not a mixed token.
+ */
+public final class TokenClassifier {
+  private final CharTermAttribute termAtt;
+  private final TypeAttribute typeAtt;
+  private final AnalysisStats.Recorder recorder;
+  private final boolean[] skip = new boolean[TokenClass.values().length];
+
+  /**
+   * @param setType whether the type of a skipped token is set to that of its class, e.g. {@code
+   *     <URL>}
+   * @param recorder counts the skipped tokens of the filter
+   */
+  public TokenClassifier(
+      AttributeSource source,
+      Set<TokenClass> classes,
+      boolean setType,
+      AnalysisStats.Recorder recorder) {
+    termAtt = source.addAttribute(CharTermAttribute.class);
+    typeAtt = setType ? source.addAttribute(TypeAttribute.class) : null;
+    this.recorder = recorder;
+    for (TokenClass tokenClass : classes) {
+      skip[tokenClass.ordinal()] = true;
+    }
+  }
+
+  /** Whether the current token is of a skipped class; if so, sets its type if enabled. */
+  public boolean skip() {
+    final TokenClass tokenClass = classify(termAtt.buffer(), termAtt.length());
+    if (tokenClass == null || !skip[tokenClass.ordinal()]) {
+      return false;
+    }
+    if (typeAtt != null) {
+      typeAtt.setType(tokenClass.type());
+    }
+    recorder.skipped(tokenClass);
+    return true;
+  }
+
+  /** The class of a token, or null for a word. */
+  public static TokenClass classify(char[] s, int len) {
+    if (len < 2) {
+      return len == 1 && isDigit(s[0]) ? TokenClass.NUMBER : null;
+    }
+    if (startsWith(s, len, "http://")
+        || startsWith(s, len, "https://")
+        || startsWith(s, len, "www.")) {
+      return TokenClass.URL;
+    }
+
+    int letters = 0;
+    int digits = 0;
+    int ats = 0;
+    int at = -1;
+    int lastDot = -1;
+    for (int i = 0; i < len; i++) {
+      final char c = s[i];
+      if (isDigit(c)) {
+        digits++;
+      } else if (Character.isLetter(c)) {
+        letters++;
+      } else if (c == '@') {
+        ats++;
+        at = i;
+      } else if (c == '.') {
+        lastDot = i;
+      } else if (c == ':' && i > 0 && i + 2 < len && s[i + 1] == '/' && s[i + 2] == '/') {
+        return TokenClass.URL;
+      }
+    }
+
+    if (ats == 1 && at > 0 && lastDot > at + 1 && lastDot < len - 1) {
+      return TokenClass.EMAIL;
+    }
+    if (s[0] == '#' && letters + digits == len - 1) {
+      return TokenClass.HASHTAG;
+    }
+    if (s[0] == '$' && Character.isLetter(s[1]) && digits == 0 && len <= 11) {
+      return TokenClass.TICKER;
+    }
+    if (digits > 0 && letters == 0) {
+      return isDate(s, len) ? TokenClass.DATE : TokenClass.NUMBER;
+    }
+    if (digits > 0) {
+      return TokenClass.MIXED;
+    }
+    return null;
+  }
+
+  /**
+   * Day, month and year separated by one of {@code . / -}, the year first or last, or day and
+   * month as in {@code 18.10.}.
+   */
+  private static boolean isDate(char[] s, int len) {
+    // "18.10.2026." ends a sentence, "18.10." is day and month
+    final boolean trailingDot = s[len - 1] == '.';
+    final int end = trailingDot ? len - 1 : len;
+    char separator = 0;
+    int groups = 0;
+    int first = 0;
+    int middle = 0;
+    int group = 0;
+    for (int i = 0; i < end; i++) {
+      final char c = s[i];
+      if (isDigit(c)) {
+        group++;
+        continue;
+      }
+      if (separator == 0 && (c == '.' || c == '/' || c == '-')) {
+        separator = c;
+      } else if (c != separator) {
+        return false;
+      }
+      if (group == 0 || group > 4 || ++groups > 2) {
+        return false;
+      }
+      if (groups == 1) {
+        first = group;
+      } else {
+        middle = group;
+      }
+      group = 0;
+    }
+    if (group == 0 || group > 4) {
+      return false;
+    }
+    if (groups == 1) {
+      return separator == '.' && trailingDot && first <= 2 && group <= 2;
+    }
+    return groups == 2
+        && middle <= 2
+        && ((first <= 2 && (group <= 2 || group == 4)) || (first == 4 && group <= 2));
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean startsWith(char[] s, int len, String prefix) {
+    if (len <= prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (s[i] != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
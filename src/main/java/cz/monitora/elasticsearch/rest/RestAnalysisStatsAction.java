@@ -0,0 +1,98 @@
+package cz.monitora.elasticsearch.rest;
+
+import static org.elasticsearch.rest.RestRequest.Method.GET;
+
+import cz.monitora.elasticsearch.analyzer.util.AnalysisStats;
+import cz.monitora.elasticsearch.analyzer.util.TokenClass;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.elasticsearch.client.internal.node.NodeClient;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.RestResponse;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+/**
+ * {@code GET _monitora/analysis/stats}: token counts, cache hit rates and sampled time per token of
+ * every monitora filter type, and the memory held by rule tables, dictionaries, overrides,
+ * protected words and caches, of the node that receives the request.
+ */
+public class RestAnalysisStatsAction extends BaseRestHandler {
+
+  @Override
+  public String getName() {
+    return "monitora_analysis_stats_action";
+  }
+
+  @Override
+  public List<Route> routes() {
+    return List.of(new Route(GET, "/_monitora/analysis/stats"));
+  }
+
+  @Override
+  protected RestChannelConsumer prepareRequest(RestRequest request, NodeClient client) {
+    final String nodeId = client.getLocalNodeId();
+    return channel -> {
+      final XContentBuilder builder = channel.newBuilder();
+      builder.startObject();
+      builder.startObject("nodes");
+      builder.startObject(nodeId);
+      toXContent(builder);
+      builder.endObject();
+      builder.endObject();
+      builder.endObject();
+      channel.sendResponse(new RestResponse(RestStatus.OK, builder));
+    };
+  }
+
+  private static void toXContent(XContentBuilder builder) throws IOException {
+    builder.startObject("filters");
+    for (Map.Entry<String, AnalysisStats> entry : AnalysisStats.byType().entrySet()) {
+      final AnalysisStats stats = entry.getValue();
+      builder.startObject(entry.getKey());
+      builder.field("tokens", stats.tokens());
+      builder.field("stemmed", stats.stemmed());
+      builder.field("keyword", stats.keywords());
+      builder.field("protected", stats.protectedWords());
+      builder.field("skipped", stats.skipped());
+      builder.startObject("skipped_classes");
+      for (TokenClass tokenClass : TokenClass.values()) {
+        final long skipped = stats.skipped(tokenClass);
+        if (skipped > 0) {
+          builder.field(tokenClass.settingName(), skipped);
+        }
+      }
+      builder.endObject();
+      builder.field("duplicates", stats.duplicates());
+      builder.startObject("cache");
+      builder.field("hits", stats.cacheHits());
+      builder.field("misses", stats.cacheMisses());
+      builder.field("hit_rate", stats.cacheHitRate());
+      builder.endObject();
+      builder.field("sampled_tokens", stats.sampledTokens());
+      builder.field("nanos_per_token", stats.nanosPerToken());
+      builder.endObject();
+    }
+    builder.endObject();
+
+    long heap = 0;
+    long offHeap = 0;
+    builder.startObject("memory");
+    for (Map.Entry<String, AnalysisStats.Memory> entry : AnalysisStats.memory().entrySet()) {
+      final AnalysisStats.Memory memory = entry.getValue();
+      builder.startObject(entry.getKey());
+      builder.field("heap_bytes", memory.heapBytes());
+      builder.field("off_heap_bytes", memory.offHeapBytes());
+      builder.endObject();
+      heap += memory.heapBytes();
+      offHeap += memory.offHeapBytes();
+    }
+    builder.startObject("total");
+    builder.field("heap_bytes", heap);
+    builder.field("off_heap_bytes", offHeap);
+    builder.endObject();
+    builder.endObject();
+  }
+}
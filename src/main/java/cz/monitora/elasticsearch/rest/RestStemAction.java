@@ -0,0 +1,145 @@
+package cz.monitora.elasticsearch.rest;
+
+import static org.elasticsearch.rest.RestRequest.Method.GET;
+import static org.elasticsearch.rest.RestRequest.Method.POST;
+
+import cz.monitora.elasticsearch.analyzer.tools.BatchStemmer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.client.internal.node.NodeClient;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.RestResponse;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentParser;
+
+/**
+ * {@code POST _monitora/stem}: stems a batch of tokens or phrases with the stemmer of a language,
+ * see {@link BatchStemmer}. The batch is stemmed on the {@code analyze} thread pool. The response
+ * is not streamed: all stems are buffered in the {@link XContentBuilder} and sent at once when the
+ * batch is done, so a batch of {@link #MAX_TOKENS} tokens is held in memory twice, as the parsed
+ * request and as the response.
+ *
+ * <pre>
+ * {"language": "czech", "lowercase": true, "with_asciifold": false, "tokens": ["Praha", ...]}
+ * </pre>
+ */
+public class RestStemAction extends BaseRestHandler {
+  static final int MAX_TOKENS = 100_000;
+
+  private static final Logger logger = LogManager.getLogger(RestStemAction.class);
+
+  @Override
+  public String getName() {
+    return "monitora_stem_action";
+  }
+
+  @Override
+  public List<Route> routes() {
+    return List.of(new Route(GET, "/_monitora/stem"), new Route(POST, "/_monitora/stem"));
+  }
+
+  @Override
+  protected RestChannelConsumer prepareRequest(RestRequest request, NodeClient client)
+      throws IOException {
+    final Request stemRequest;
+    try (XContentParser parser = request.contentParser()) {
+      stemRequest = Request.parse(parser);
+    }
+    final BatchStemmer stemmer = BatchStemmer.of(stemRequest.language, stemRequest.withAsciifold);
+    return channel ->
+        client
+            .threadPool()
+            .executor(ThreadPool.Names.ANALYZE)
+            .execute(
+                new AbstractRunnable() {
+                  @Override
+                  protected void doRun() throws IOException {
+                    final XContentBuilder builder = channel.newBuilder();
+                    builder.startObject();
+                    builder.startArray("stems");
+                    stemmer.stem(stemRequest.tokens, stemRequest.lowercase, builder::value);
+                    builder.endArray();
+                    builder.endObject();
+                    channel.sendResponse(new RestResponse(RestStatus.OK, builder));
+                  }
+
+                  @Override
+                  public void onFailure(Exception e) {
+                    sendFailure(channel, e);
+                  }
+                });
+  }
+
+  private static void sendFailure(RestChannel channel, Exception e) {
+    try {
+      channel.sendResponse(new RestResponse(channel, e));
+    } catch (Exception inner) {
+      inner.addSuppressed(e);
+      logger.error("failed to send failure response", inner);
+    }
+  }
+
+  /** The body of a request. */
+  static final class Request {
+    String language;
+    boolean lowercase = true;
+    boolean withAsciifold;
+    final List<String> tokens = new ArrayList<>();
+
+    static Request parse(XContentParser parser) throws IOException {
+      final Request request = new Request();
+      if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+        throw new IllegalArgumentException("Expected an object");
+      }
+      XContentParser.Token token;
+      while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+        final String field = parser.currentName();
+        parser.nextToken();
+        switch (field) {
+          case "language":
+            request.language = parser.text();
+            break;
+          case "lowercase":
+            request.lowercase = parser.booleanValue();
+            break;
+          case "with_asciifold":
+            request.withAsciifold = parser.booleanValue();
+            break;
+          case "tokens":
+            if (parser.currentToken() != XContentParser.Token.START_ARRAY) {
+              throw new IllegalArgumentException("[tokens] must be an array of strings");
+            }
+            while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+              // text() would turn null, numbers and booleans into strings and fail on objects
+              if (parser.currentToken() != XContentParser.Token.VALUE_STRING) {
+                throw new IllegalArgumentException("[tokens] must be an array of strings");
+              }
+              if (request.tokens.size() == MAX_TOKENS) {
+                throw new IllegalArgumentException(
+                    "More than " + MAX_TOKENS + " [tokens], split the batch");
+              }
+              request.tokens.add(parser.text());
+            }
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown field [" + field + "]");
+        }
+      }
+      if (token != XContentParser.Token.END_OBJECT) {
+        throw new IllegalArgumentException("Malformed request body");
+      }
+      if (request.language == null) {
+        throw new IllegalArgumentException("Missing [language]");
+      }
+      return request;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package cz.monitora.elasticsearch.analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import cz.monitora.elasticsearch.analyzer.asciifold.ASCIIFoldFilter;
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemFilter;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilter;
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseFilter;
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseStemFilter;
+import cz.monitora.elasticsearch.analyzer.prefix.StemPrefixFilter;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemFilter;
+import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemFilter;
+import cz.monitora.elasticsearch.analyzer.util.ProtectedWords;
+import cz.monitora.elasticsearch.analyzer.util.StemFilterOptions;
+import cz.monitora.elasticsearch.analyzer.util.StemOverrides;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Runs every filter over a long token stream and fails when it allocates more per token than its
+ * budget, once warmed up. The allocation of the test thread is measured with {@link
+ * com.sun.management.ThreadMXBean}, the smallest of several rounds counts.
+ */
+public class FilterAllocationTest {
+  private static final String TEXT =
+      "Vláda schválila návrh státního rozpočtu ŠKODA AUTO Milanovićem Hrvatskoga sabora "
+          + "predsedovia samosprávnych krajov žiadajú vyššie príspevky Banka Slovenije "
+          + "je opozorila da se inflacija počasneje vrača proti cilju Ünïcödé 𐐀𐐨 "
+          + "https://example.com/clanek "
+          + "Zagreb Ljubljana Bratislava Praha praze PRAHA lidé psa";
+  private static final int TOKENS_PER_ROUND = 100_000;
+  private static final int WARMUP_ROUNDS = 30;
+  private static final int ROUNDS = 5;
+
+  private static StemFilterOptions options(boolean foldInput) {
+    try {
+      return new StemFilterOptions(
+          1024,
+          null,
+          StemOverrides.of(List.of(Map.entry("lidé", "člověk"), Map.entry("psa", "pes")), false),
+          foldInput,
+          ProtectedWords.of(List.of("škoda", "praha"), foldInput));
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Drops duplicates at a position; the capitalized forms of Praha are stemmed to the protected
+   * lowercase one, so that their preserved originals are dropped.
+   */
+  private static StemFilterOptions dedupOptions() {
+    try {
+      return new StemFilterOptions(
+              1024,
+              null,
+              StemOverrides.of(
+                  List.of(Map.entry("Praha", "praha"), Map.entry("PRAHA", "praha")), false),
+              false,
+              ProtectedWords.of(List.of("praha"), false))
+          .withDedupSamePosition(true);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static Arguments filter(
+      String name, Function<TokenStream, TokenStream> filter, double bytesPerToken) {
+    return Arguments.of(name, filter, bytesPerToken);
+  }
+
+  private static Stream<Arguments> filters() {
+    return Stream.of(
+        filter("monitora_lowercase", in -> new LowerCaseFilter(in, false), 0),
+        filter("monitora_lowercase preserve_original", in -> new LowerCaseFilter(in, true), 0),
+        filter("monitora_asciifold", in -> new ASCIIFoldFilter(in, false), 0),
+        filter("monitora_asciifold preserve_original", in -> new ASCIIFoldFilter(in, true), 0),
+        filter("monitora_czech_stem", in -> new CzechStemFilter(in, false), 0),
+        filter("monitora_czech_stem with_asciifold", in -> new CzechStemFilter(in, true), 0),
+        filter(
+            "monitora_czech_stem with options",
+            in -> new CzechStemFilter(in, false, options(false)),
+            0),
+        filter("monitora_slovak_stem", in -> new SlovakStemFilter(in, false), 0),
+        filter(
+            "monitora_slovak_stem fold_input",
+            in -> new SlovakStemFilter(in, false, options(true)),
+            0),
+        filter("monitora_slovenian_stem", SlovenianStemFilter::new, 0),
+        filter("monitora_croatian_stem", CroatianStemFilter::new, 0),
+        filter(
+            "monitora_lowercase_stem",
+            in -> new LowerCaseStemFilter(in, true, s -> new CzechStemFilter(s, false)),
+            0),
+        filter(
+            "monitora_lowercase_stem preserve_original dedup_same_position",
+            in ->
+                new LowerCaseStemFilter(
+                    in, true, s -> new CzechStemFilter(s, false, dedupOptions())),
+            0),
+        filter(
+            "monitora_czech_stem dedup_same_position after preserve_original",
+            in -> new CzechStemFilter(new LowerCaseFilter(in, true), false, dedupOptions()),
+            0),
+        filter(
+            "monitora_stem_prefix",
+            in -> new StemPrefixFilter(new CzechStemFilter(in, false), 3, 10),
+            0));
+  }
+
+  /** Replays the words of {@link #TEXT} without allocating, unlike a real tokenizer. */
+  private static final class ReplayTokenizer extends Tokenizer {
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final char[][] words;
+    private int emitted;
+
+    ReplayTokenizer() {
+      final String[] split = TEXT.split(" ");
+      words = new char[split.length][];
+      for (int i = 0; i < split.length; i++) {
+        words[i] = split[i].toCharArray();
+      }
+    }
+
+    @Override
+    public boolean incrementToken() {
+      if (emitted == TOKENS_PER_ROUND) {
+        return false;
+      }
+      clearAttributes();
+      final char[] word = words[emitted++ % words.length];
+      termAtt.copyBuffer(word, 0, word.length);
+      return true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      super.reset();
+      emitted = 0;
+    }
+  }
+
+  private static int round(TokenStream stream) throws IOException {
+    int tokens = 0;
+    stream.reset();
+    while (stream.incrementToken()) {
+      tokens++;
+    }
+    stream.end();
+    return tokens;
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("filters")
+  public void test_steady_state_allocation(
+      String name, Function<TokenStream, TokenStream> filter, double bytesPerToken)
+      throws IOException {
+    final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    final TokenStream stream = filter.apply(new ReplayTokenizer());
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      round(stream);
+    }
+    long minAllocated = Long.MAX_VALUE;
+    int tokens = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      final long before = threads.getCurrentThreadAllocatedBytes();
+      tokens = round(stream);
+      final long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+      minAllocated = Math.min(minAllocated, allocated);
+    }
+    stream.close();
+
+    assertTrue(tokens >= TOKENS_PER_ROUND);
+    assertTrue(
+        minAllocated <= bytesPerToken * tokens,
+        name + " allocated " + minAllocated + " bytes for " + tokens + " tokens");
+  }
+}
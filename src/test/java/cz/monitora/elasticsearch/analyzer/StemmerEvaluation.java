@@ -0,0 +1,193 @@
+package cz.monitora.elasticsearch.analyzer;
+
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemmer;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmer;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemmer;
+import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemmer;
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates the stem-group consistency of a stemmer: all inflected forms of a group should stem to
+ * the same string. The stem does not have to match the base form, the first column of a group.
+ *
+ * <p>Datasets are TSV files, one group per line ({@code base<TAB>form<TAB>form...}), {@code #}
+ * starts a comment. Forms of several words are stemmed word by word. The bundled datasets are
+ * {@code <language>/<language>_<dataset>.tsv} test resources. More can be put in the directory
+ * given by the {@code evaluation.dir} system property as {@code <language>*.tsv}. Groups are
+ * evaluated in parallel with one stemmer per thread.
+ */
+public final class StemmerEvaluation {
+  public static final List<String> LANGUAGES = List.of("czech", "slovak", "croatian", "slovenian");
+  private static final List<String> BUNDLED = List.of("common_words", "keywords");
+
+  /** Inflected forms that should stem to the same string. */
+  public static final class Group {
+    public final String base;
+    public final List<String> forms;
+
+    Group(String base, List<String> forms) {
+      this.base = base;
+      this.forms = forms;
+    }
+  }
+
+  /** A group whose forms were stemmed to different strings. */
+  public static final class Failure {
+    final String base;
+    final Set<String> stems;
+    final Map<String, String> formToStem;
+
+    Failure(String base, Set<String> stems, Map<String, String> formToStem) {
+      this.base = base;
+      this.stems = stems;
+      this.formToStem = formToStem;
+    }
+  }
+
+  /** Result of one dataset. */
+  public static final class Result {
+    final String dataset;
+    final int groups;
+    final long forms;
+    final long nanos;
+    final List<Failure> failures;
+
+    Result(String dataset, int groups, long forms, long nanos, List<Failure> failures) {
+      this.dataset = dataset;
+      this.groups = groups;
+      this.forms = forms;
+      this.nanos = nanos;
+      this.failures = failures;
+    }
+
+    int consistent() {
+      return groups - failures.size();
+    }
+
+    double precision() {
+      return groups > 0 ? (double) consistent() / groups * 100 : 0;
+    }
+
+    double formsPerSecond() {
+      return nanos > 0 ? forms * 1e9 / nanos : 0;
+    }
+  }
+
+  private StemmerEvaluation() {}
+
+  /** A new stemmer for the language, stemmers are not thread safe. */
+  public static Supplier<Stemmer> stemmer(String language) {
+    switch (language) {
+      case "czech":
+        return () -> new CzechStemmer()::stem;
+      case "slovak":
+        return () -> new SlovakStemmer()::stem;
+      case "croatian":
+        return () -> new CroatianStemmer()::stem;
+      case "slovenian":
+        return () -> new SlovenianStemmer()::stem;
+      default:
+        throw new IllegalArgumentException("Unknown language " + language);
+    }
+  }
+
+  /** Bundled and external datasets of the language, by name. */
+  public static Map<String, List<Group>> datasets(String language) throws IOException {
+    final Map<String, List<Group>> datasets = new LinkedHashMap<>();
+    for (String name : BUNDLED) {
+      final String resource = language + "/" + language + "_" + name + ".tsv";
+      try (InputStream in = StemmerEvaluation.class.getResourceAsStream(resource)) {
+        if (in != null) {
+          datasets.put(
+              language + "_" + name,
+              read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))));
+        }
+      }
+    }
+    final String dir = System.getProperty("evaluation.dir");
+    if (dir != null && !dir.isEmpty()) {
+      try (DirectoryStream<Path> files =
+          Files.newDirectoryStream(Path.of(dir), language + "*.tsv")) {
+        for (Path file : files) {
+          try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            datasets.put(file.getFileName().toString(), read(reader));
+          }
+        }
+      }
+    }
+    return datasets;
+  }
+
+  static List<Group> read(BufferedReader reader) throws IOException {
+    final List<Group> groups = new ArrayList<>();
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isBlank() || line.startsWith("#")) {
+        continue;
+      }
+      final String[] columns = line.split("\t");
+      if (columns.length > 1) {
+        groups.add(
+            new Group(columns[0], List.of(Arrays.copyOfRange(columns, 1, columns.length))));
+      }
+    }
+    return groups;
+  }
+
+  /** Evaluates the groups in parallel, with one stemmer from {@code stemmer} per thread. */
+  public static Result evaluate(String dataset, List<Group> groups, Supplier<Stemmer> stemmer) {
+    final ThreadLocal<Stemmer> stemmers = ThreadLocal.withInitial(stemmer);
+    final long start = System.nanoTime();
+    final List<Failure> failures =
+        groups.parallelStream()
+            .map(group -> evaluate(group, stemmers.get()))
+            .filter(failure -> failure != null)
+            .collect(Collectors.toList());
+    final long nanos = System.nanoTime() - start;
+    final long forms = groups.stream().mapToLong(group -> group.forms.size()).sum();
+    return new Result(dataset, groups.size(), forms, nanos, failures);
+  }
+
+  /** Null if all forms stem to the same string. */
+  private static Failure evaluate(Group group, Stemmer stemmer) {
+    final Map<String, String> formToStem = new LinkedHashMap<>();
+    final Set<String> stems = new LinkedHashSet<>();
+    for (String form : group.forms) {
+      final String stem = stem(stemmer, form);
+      formToStem.put(form, stem);
+      stems.add(stem);
+    }
+    return stems.size() == 1 ? null : new Failure(group.base, stems, formToStem);
+  }
+
+  /** Stems every whitespace separated word of the text. */
+  public static String stem(Stemmer stemmer, String text) {
+    final StringBuilder result = new StringBuilder();
+    for (String word : text.trim().split("\\s+")) {
+      final char[] chars = word.toCharArray();
+      final int len = stemmer.stem(chars, chars.length);
+      if (result.length() > 0) {
+        result.append(' ');
+      }
+      result.append(chars, 0, len);
+    }
+    return result.toString();
+  }
+}
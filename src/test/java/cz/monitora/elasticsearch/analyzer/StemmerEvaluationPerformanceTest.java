@@ -0,0 +1,83 @@
+package cz.monitora.elasticsearch.analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.StemmerEvaluation.Failure;
+import cz.monitora.elasticsearch.analyzer.StemmerEvaluation.Group;
+import cz.monitora.elasticsearch.analyzer.StemmerEvaluation.Result;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Stem-group consistency of every stemmer on its {@link StemmerEvaluation} datasets, with
+ * throughput and the groups that fail.
+ *
+ * <p>Run manually (not part of regular test suite). Use: ./gradlew performanceTest, add
+ * -Pevaluation.dir=/path/to/datasets to evaluate more datasets.
+ */
+@Tag("performance")
+public class StemmerEvaluationPerformanceTest {
+  private static final int MAX_REPORTED_FAILURES = 100;
+
+  static List<String> languages() {
+    return StemmerEvaluation.LANGUAGES;
+  }
+
+  @ParameterizedTest
+  @MethodSource("languages")
+  public void evaluate_stemmer(String language) throws IOException {
+    final Map<String, List<Group>> datasets = StemmerEvaluation.datasets(language);
+    assertFalse(datasets.isEmpty(), "No datasets for " + language);
+
+    final List<Result> results = new ArrayList<>();
+    for (Map.Entry<String, List<Group>> dataset : datasets.entrySet()) {
+      results.add(
+          StemmerEvaluation.evaluate(
+              dataset.getKey(), dataset.getValue(), StemmerEvaluation.stemmer(language)));
+    }
+
+    System.out.println("=".repeat(80));
+    System.out.printf("%s stemmer evaluation%n", language);
+    System.out.println("=".repeat(80));
+    int groups = 0;
+    int consistent = 0;
+    for (Result result : results) {
+      groups += result.groups;
+      consistent += result.consistent();
+      System.out.printf(
+          "%-40s %6d/%-6d groups  precision %5.1f%%  %,12.0f forms/s%n",
+          result.dataset,
+          result.consistent(),
+          result.groups,
+          result.precision(),
+          result.formsPerSecond());
+    }
+    System.out.printf(
+        "Overall precision: %.1f%% (%d/%d)%n%n",
+        groups > 0 ? (double) consistent / groups * 100 : 0, consistent, groups);
+
+    for (Result result : results) {
+      if (result.failures.isEmpty()) {
+        continue;
+      }
+      System.out.printf("=== %s failures ===%n", result.dataset);
+      final int reported = Math.min(MAX_REPORTED_FAILURES, result.failures.size());
+      for (Failure failure : result.failures.subList(0, reported)) {
+        System.out.printf(
+            "\"%s\": %d different stems %s%n", failure.base, failure.stems.size(), failure.stems);
+        for (Map.Entry<String, String> e : failure.formToStem.entrySet()) {
+          System.out.printf("    \"%s\" → \"%s\"%n", e.getKey(), e.getValue());
+        }
+      }
+      if (result.failures.size() > MAX_REPORTED_FAILURES) {
+        System.out.printf("... and %d more%n", result.failures.size() - MAX_REPORTED_FAILURES);
+      }
+      System.out.println();
+    }
+  }
+}
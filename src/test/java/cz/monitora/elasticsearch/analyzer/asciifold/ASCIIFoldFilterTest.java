@@ -0,0 +1,142 @@
+package cz.monitora.elasticsearch.analyzer.asciifold;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionLengthAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.junit.jupiter.api.Test;
+
+public class ASCIIFoldFilterTest {
+
+  private static List<String> tokens(String text, boolean preserveOriginal) throws IOException {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader(text));
+    final TokenStream stream = new ASCIIFoldFilter(tokenizer, preserveOriginal);
+    final CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    final PositionIncrementAttribute posInc =
+        stream.addAttribute(PositionIncrementAttribute.class);
+    final List<String> result = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      result.add(term + "/" + posInc.getPositionIncrement());
+    }
+    stream.end();
+    stream.close();
+    return result;
+  }
+
+  @Test
+  public void test_central_european_letters() throws IOException {
+    assertEquals(
+        List.of("zlutoucky/1", "kun/1", "lubost/1", "dordevic/1", "Rozne/1", "Dusa/1"),
+        tokens("žluťoučký kůň ľúbosť đorđević Różne Duša", false));
+  }
+
+  @Test
+  public void test_preserve_original() throws IOException {
+    assertEquals(
+        List.of("Praha/1", "zluty/1", "žlutý/0", "straße/1"),
+        tokens("Praha žlutý straße", true));
+  }
+
+  /** Follows every token by a synonym spanning two positions, like {@code synonym_graph}. */
+  private static final class InjectSynonym extends TokenFilter {
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final PositionIncrementAttribute posIncAttr =
+        addAttribute(PositionIncrementAttribute.class);
+    private final PositionLengthAttribute posLenAttr = addAttribute(PositionLengthAttribute.class);
+    private final OffsetAttribute offsetAttr = addAttribute(OffsetAttribute.class);
+    private final TypeAttribute typeAttr = addAttribute(TypeAttribute.class);
+    private boolean inject;
+
+    InjectSynonym(TokenStream in) {
+      super(in);
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+      if (inject) {
+        inject = false;
+        clearAttributes();
+        termAtt.append("syn");
+        posIncAttr.setPositionIncrement(0);
+        posLenAttr.setPositionLength(2);
+        offsetAttr.setOffset(0, 1);
+        typeAttr.setType("SYNONYM");
+        return true;
+      }
+      inject = input.incrementToken();
+      return inject;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      super.reset();
+      inject = false;
+    }
+  }
+
+  @Test
+  public void test_preserve_original_keeps_all_attributes() throws IOException {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader("Praha žlutý"));
+    final TokenStream stream = new InjectSynonym(new ASCIIFoldFilter(tokenizer, true));
+    final CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    final PositionIncrementAttribute posInc =
+        stream.addAttribute(PositionIncrementAttribute.class);
+    final PositionLengthAttribute posLen = stream.addAttribute(PositionLengthAttribute.class);
+    final OffsetAttribute offset = stream.addAttribute(OffsetAttribute.class);
+    final TypeAttribute type = stream.addAttribute(TypeAttribute.class);
+    final List<String> result = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      result.add(
+          term
+              + "/"
+              + posInc.getPositionIncrement()
+              + "/"
+              + offset.startOffset()
+              + "-"
+              + offset.endOffset()
+              + "/"
+              + type.type()
+              + "/"
+              + posLen.getPositionLength());
+    }
+    stream.end();
+    stream.close();
+    assertEquals(
+        List.of(
+            "Praha/1/0-5/word/1",
+            "syn/0/0-1/SYNONYM/2",
+            "zluty/1/6-11/word/1",
+            "syn/0/0-1/SYNONYM/2",
+            "žlutý/0/6-11/word/1",
+            "syn/0/0-1/SYNONYM/2"),
+        result);
+  }
+
+  @Test
+  public void test_same_as_lucene_for_single_letter_folds() {
+    for (char c = 0x80; c < 0x250; c++) {
+      final char[] folded = new char[4];
+      final int length = ASCIIFoldingFilter.foldToASCII(new char[] {c}, 0, folded, 0, 1);
+      final char[] actual = {c};
+      ASCIIFoldFilter.fold(actual, 1);
+      final boolean inTable = c >= 0xc0 && c < 0x180;
+      assertEquals(inTable && length == 1 ? folded[0] : c, actual[0], "U+" + (int) c);
+    }
+  }
+}
@@ -4,7 +4,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -19,6 +21,56 @@ public class CroatianStemmerTest {
     assertEquals(exp, new String(Arrays.copyOfRange(ch, 0, stemmer.stem(ch, ch.length))));
   }
 
+  @Test
+  public void test_work_budget() {
+    final CroatianStemmer stemmer = new CroatianStemmer();
+    final char[] url = "https://example.com/".repeat(500).toCharArray();
+    final char[] copy = url.clone();
+    assertEquals(CroatianStemmer.BUDGET_EXCEEDED, stemmer.stem(url, url.length, 1000));
+    assertArrayEquals(copy, url);
+
+    final char[] word = "milanovićem".toCharArray();
+    assertEquals("milanović".length(), stemmer.stem(word, word.length, 1000));
+
+    // the patterns are compared at every suffix their end matches, which counts too
+    final char[] tight = "milanovićem".toCharArray();
+    assertEquals(CroatianStemmer.BUDGET_EXCEEDED, stemmer.stem(tight, tight.length, 200));
+    assertArrayEquals("milanovićem".toCharArray(), tight);
+  }
+
+  @ParameterizedTest
+  @MethodSource("provideFoldedData")
+  public void test_stem_ascii_folded(String val, String exp) {
+    final CroatianStemmer stemmer = new CroatianStemmer(true);
+    char[] ch = val.toCharArray();
+    assertEquals(exp, new String(Arrays.copyOfRange(ch, 0, stemmer.stem(ch, ch.length))));
+  }
+
+  @Test
+  public void test_folded_rules_keep_the_first_declared() {
+    // č and ć both fold to c, the rule declared first wins whatever the map iterates first
+    final CroatianStemmer.Rules rules = new CroatianStemmer.Rules();
+    rules.put("ćac", "ćca");
+    rules.put("čac", "čco");
+    rules.put("zao", "zli");
+    assertEquals(Map.of("cac", "cca", "zao", "zli"), rules.fold());
+
+    final CroatianStemmer.Rules reversed = new CroatianStemmer.Rules();
+    reversed.put("čac", "čco");
+    reversed.put("ćac", "ćca");
+    assertEquals(Map.of("cac", "cco"), reversed.fold());
+  }
+
+  private static Stream<Arguments> provideFoldedData() {
+    return Stream.of(
+        Arguments.of("milanovicem", "milanovic"),
+        Arguments.of("beslicem", "beslic"),
+        Arguments.of("hrkacem", "hrkac"),
+        Arguments.of("kucama", "kuc"),
+        Arguments.of("uciteljima", "ucitelj"),
+        Arguments.of("zenama", "zen"));
+  }
+
   private static Stream<Arguments> provideData() {
     /*
     	In [11]: for one in ElasticSynonym.objects.filter(language='hr'):
@@ -55,6 +107,12 @@ public class CroatianStemmerTest {
         Arguments.of("dobra", "dobro"),
         Arguments.of("zao", "zli"),
         Arguments.of("zla", "zli"),
-        Arguments.of("zlo", "zli"));
+        Arguments.of("zlo", "zli"),
+
+        // stop words and transformations
+        Arguments.of("biti", "biti"),
+        Arguments.of("moraju", "moraju"),
+        Arguments.of("jacima", "jac"),
+        Arguments.of("esteticima", "estetic"));
   }
 }
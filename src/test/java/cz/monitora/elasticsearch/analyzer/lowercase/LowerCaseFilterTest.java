@@ -0,0 +1,188 @@
+package cz.monitora.elasticsearch.analyzer.lowercase;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.lucene.analysis.CharacterUtils;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionLengthAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.junit.jupiter.api.Test;
+
+public class LowerCaseFilterTest {
+
+  private static List<String> tokens(TokenStream stream) throws IOException {
+    final CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    final PositionIncrementAttribute posInc =
+        stream.addAttribute(PositionIncrementAttribute.class);
+    final KeywordAttribute keyword = stream.addAttribute(KeywordAttribute.class);
+    final List<String> result = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      result.add(term + "/" + posInc.getPositionIncrement() + (keyword.isKeyword() ? "/k" : ""));
+    }
+    stream.end();
+    stream.close();
+    return result;
+  }
+
+  /** Marks every token as keyword, like a stem filter with long_token_action keyword. */
+  private static final class MarkKeyword extends TokenFilter {
+    private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+
+    MarkKeyword(TokenStream in) {
+      super(in);
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+      if (input.incrementToken()) {
+        keywordAttr.setKeyword(true);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  @Test
+  public void test_preserve_original() throws IOException {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    final TokenStream stream = new MarkKeyword(new LowerCaseFilter(tokenizer, true));
+    tokenizer.setReader(new StringReader("Praha praha ŽLUŤOUČKÝ"));
+    assertEquals(
+        List.of("praha/1/k", "Praha/0/k", "praha/1/k", "žluťoučký/1/k", "ŽLUŤOUČKÝ/0/k"),
+        tokens(stream));
+
+    // a reused stream starts clean
+    tokenizer.setReader(new StringReader("A"));
+    assertEquals(List.of("a/1/k", "A/0/k"), tokens(stream));
+  }
+
+  @Test
+  public void test_original_keeps_its_keyword_flag() throws IOException {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    final List<String> seen = new ArrayList<>();
+    final TokenStream stream =
+        new TokenFilter(new LowerCaseFilter(tokenizer, true)) {
+          private final CharTermAttribute term = addAttribute(CharTermAttribute.class);
+          private final KeywordAttribute keyword = addAttribute(KeywordAttribute.class);
+
+          @Override
+          public boolean incrementToken() throws IOException {
+            if (!input.incrementToken()) {
+              return false;
+            }
+            seen.add(term + (keyword.isKeyword() ? "/k" : ""));
+            keyword.setKeyword(true);
+            return true;
+          }
+        };
+    tokenizer.setReader(new StringReader("Praha"));
+    tokens(stream);
+    assertEquals(List.of("praha", "Praha"), seen);
+  }
+
+  /**
+   * Follows every token by a synonym spanning two positions, like {@code synonym_graph}: the
+   * attributes are cleared and the type, offsets and position length set.
+   */
+  private static final class InjectSynonym extends TokenFilter {
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final PositionIncrementAttribute posIncAttr =
+        addAttribute(PositionIncrementAttribute.class);
+    private final PositionLengthAttribute posLenAttr = addAttribute(PositionLengthAttribute.class);
+    private final OffsetAttribute offsetAttr = addAttribute(OffsetAttribute.class);
+    private final TypeAttribute typeAttr = addAttribute(TypeAttribute.class);
+    private boolean inject;
+
+    InjectSynonym(TokenStream in) {
+      super(in);
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+      if (inject) {
+        inject = false;
+        clearAttributes();
+        termAtt.append("syn");
+        posIncAttr.setPositionIncrement(0);
+        posLenAttr.setPositionLength(2);
+        offsetAttr.setOffset(0, 1);
+        typeAttr.setType("SYNONYM");
+        return true;
+      }
+      inject = input.incrementToken();
+      return inject;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      super.reset();
+      inject = false;
+    }
+  }
+
+  @Test
+  public void test_original_keeps_all_attributes() throws IOException {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader("Praha"));
+    final TokenStream stream = new InjectSynonym(new LowerCaseFilter(tokenizer, true));
+    final CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    final PositionIncrementAttribute posInc =
+        stream.addAttribute(PositionIncrementAttribute.class);
+    final PositionLengthAttribute posLen = stream.addAttribute(PositionLengthAttribute.class);
+    final OffsetAttribute offset = stream.addAttribute(OffsetAttribute.class);
+    final TypeAttribute type = stream.addAttribute(TypeAttribute.class);
+    final List<String> result = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      result.add(
+          term
+              + "/"
+              + posInc.getPositionIncrement()
+              + "/"
+              + offset.startOffset()
+              + "-"
+              + offset.endOffset()
+              + "/"
+              + type.type()
+              + "/"
+              + posLen.getPositionLength());
+    }
+    stream.end();
+    stream.close();
+    assertEquals(
+        List.of(
+            "praha/1/0-5/word/1",
+            "syn/0/0-1/SYNONYM/2",
+            "Praha/0/0-5/word/1",
+            "syn/0/0-1/SYNONYM/2"),
+        result);
+  }
+
+  @Test
+  public void test_single_pass_same_as_character_utils() {
+    for (int c = 0; c <= Character.MAX_VALUE; c++) {
+      final char[] expected = {'x', (char) c, 'y', '\uD801', '\uDC00'};
+      final char[] actual = expected.clone();
+      boolean isAnyUpper = false;
+      for (char e : expected) {
+        isAnyUpper |= Character.isUpperCase(e);
+      }
+      CharacterUtils.toLowerCase(expected, 0, expected.length);
+      assertEquals(isAnyUpper, LowerCase.hasUpperCase(actual, actual.length));
+      assertEquals(isAnyUpper, LowerCase.toLowerCase(actual, actual.length));
+      assertArrayEquals(expected, actual);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package cz.monitora.elasticsearch.analyzer.lowercase;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.apache.lucene.analysis.CharacterUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the single pass lowercasing of {@link LowerCase} with the former upper case check
+ * followed by {@link CharacterUtils#toLowerCase}, on headline-like Czech tokens.
+ *
+ * <p>Run manually (not part of regular test suite). Use: ./gradlew performanceTest
+ */
+@Tag("performance")
+public class LowerCasePerformanceTest {
+  private static final String[] WORDS =
+      ("Praha vláda Babiš premiér ANO ČEZ Ministerstvo financí uvedlo že rozpočet na příští rok "
+              + "počítá se schodkem EU NATO Zelenskyj Kyjev Brno Ostrava ŠKODA Auto Mladá Boleslav")
+          .split(" ");
+
+  private static boolean twoPass(char[] buffer, int length) {
+    boolean isAnyUpper = false;
+    for (int i = 0; i < length && !isAnyUpper; ++i) {
+      isAnyUpper = Character.isUpperCase(buffer[i]);
+    }
+    CharacterUtils.toLowerCase(buffer, 0, length);
+    return isAnyUpper;
+  }
+
+  @Test
+  public void benchmark() {
+    final Random random = new Random(42);
+    final char[][] tokens = new char[1 << 16][];
+    for (int i = 0; i < tokens.length; i++) {
+      tokens[i] = WORDS[random.nextInt(WORDS.length)].toCharArray();
+    }
+    final char[] buffer = new char[64];
+
+    for (int round = 0; round < 10; round++) {
+      long start = System.nanoTime();
+      int upper = 0;
+      for (int repeat = 0; repeat < 50; repeat++) {
+        for (char[] token : tokens) {
+          System.arraycopy(token, 0, buffer, 0, token.length);
+          upper += twoPass(buffer, token.length) ? 1 : 0;
+        }
+      }
+      final long twoPassNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      int upperFast = 0;
+      for (int repeat = 0; repeat < 50; repeat++) {
+        for (char[] token : tokens) {
+          System.arraycopy(token, 0, buffer, 0, token.length);
+          upperFast += LowerCase.toLowerCase(buffer, token.length) ? 1 : 0;
+        }
+      }
+      final long singlePassNanos = System.nanoTime() - start;
+
+      assertEquals(upper, upperFast);
+      System.out.printf(
+          "round %d: two pass %.1f ns/token, single pass %.1f ns/token%n",
+          round,
+          (double) twoPassNanos / (50 * tokens.length),
+          (double) singlePassNanos / (50 * tokens.length));
+    }
+  }
+}
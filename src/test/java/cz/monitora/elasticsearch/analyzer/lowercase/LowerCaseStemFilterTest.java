@@ -0,0 +1,124 @@
+package cz.monitora.elasticsearch.analyzer.lowercase;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemFilter;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilter;
+import cz.monitora.elasticsearch.analyzer.util.StemFilterOptions;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.KeywordRepeatFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class LowerCaseStemFilterTest {
+  private static final String TEXT =
+      "Praha PRAHA praze Milanovićem ǅamija Ünïcödé 𐐀𐐨 ivou IVOU a Extralize";
+
+  private static List<String> tokens(TokenStream stream) throws IOException {
+    final CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    final PositionIncrementAttribute posInc =
+        stream.addAttribute(PositionIncrementAttribute.class);
+    final OffsetAttribute offset = stream.addAttribute(OffsetAttribute.class);
+    final KeywordAttribute keyword = stream.addAttribute(KeywordAttribute.class);
+    final List<String> result = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      result.add(
+          term
+              + "/"
+              + posInc.getPositionIncrement()
+              + "/"
+              + offset.startOffset()
+              + "-"
+              + offset.endOffset()
+              + (keyword.isKeyword() ? "/k" : ""));
+    }
+    stream.end();
+    result.add("end/" + offset.endOffset());
+    stream.close();
+    return result;
+  }
+
+  private static Tokenizer tokenizer() {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader(TEXT));
+    return tokenizer;
+  }
+
+  private static void assertSameAsChain(
+      boolean preserveOriginal, Function<TokenStream, TokenStream> stemFilter) throws IOException {
+    final List<String> chain =
+        tokens(stemFilter.apply(new LowerCaseFilter(tokenizer(), preserveOriginal)));
+    final List<String> fused =
+        tokens(new LowerCaseStemFilter(tokenizer(), preserveOriginal, stemFilter));
+    assertEquals(chain, fused);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void test_czech_same_as_chain(boolean preserveOriginal) throws IOException {
+    assertSameAsChain(preserveOriginal, in -> new CzechStemFilter(in, false));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void test_croatian_keywords_same_as_chain(boolean preserveOriginal) throws IOException {
+    // tokens longer than 6 chars are marked as keywords, the original must not inherit the flag
+    assertSameAsChain(
+        preserveOriginal,
+        in ->
+            new CroatianStemFilter(
+                in, StemFilterOptions.DEFAULT, 6, Long.MAX_VALUE, true, new LongAdder()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void test_dropped_duplicates_same_as_chain(boolean preserveOriginal) throws IOException {
+    // the stem of "a" repeats the keyword "a" at the same position and is dropped
+    final StemFilterOptions dedup = StemFilterOptions.DEFAULT.withDedupSamePosition(true);
+    assertSameAsChain(
+        preserveOriginal, in -> new CzechStemFilter(new KeywordRepeatFilter(in), false, dedup));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void test_stem_filter_is_ended_and_closed(boolean preserveOriginal) throws IOException {
+    final List<String> calls = new ArrayList<>();
+    final Function<TokenStream, TokenStream> stemFilter =
+        in ->
+            new TokenFilter(new CzechStemFilter(in, false)) {
+              @Override
+              public boolean incrementToken() throws IOException {
+                return input.incrementToken();
+              }
+
+              @Override
+              public void end() throws IOException {
+                super.end();
+                calls.add("end");
+              }
+
+              @Override
+              public void close() throws IOException {
+                super.close();
+                calls.add("close");
+              }
+            };
+    // the final offset survives ending the stem filter
+    assertSameAsChain(preserveOriginal, stemFilter);
+    assertEquals(List.of("end", "close", "end", "close"), calls);
+  }
+}
@@ -0,0 +1,172 @@
+package cz.monitora.elasticsearch.analyzer.prefix;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.asciifold.ASCIIFoldFilter;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.KeywordRepeatFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.junit.jupiter.api.Test;
+
+public class StemPrefixFilterTest {
+
+  private static Tokenizer tokenizer(String text) {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader(text));
+    return tokenizer;
+  }
+
+  private static List<String> tokens(TokenStream stream) throws IOException {
+    final CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    final PositionIncrementAttribute posInc =
+        stream.addAttribute(PositionIncrementAttribute.class);
+    final OffsetAttribute offset = stream.addAttribute(OffsetAttribute.class);
+    final TypeAttribute type = stream.addAttribute(TypeAttribute.class);
+    final KeywordAttribute keyword = stream.addAttribute(KeywordAttribute.class);
+    final List<String> result = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      result.add(
+          term
+              + "/"
+              + posInc.getPositionIncrement()
+              + "/"
+              + offset.startOffset()
+              + "-"
+              + offset.endOffset()
+              + (StemPrefixFilter.TYPE.equals(type.type()) ? "/p" : "")
+              + (keyword.isKeyword() ? "/k" : ""));
+    }
+    stream.end();
+    stream.close();
+    return result;
+  }
+
+  @Test
+  public void test_prefixes_of_stems() throws IOException {
+    assertEquals(
+        List.of(
+            "hrad/1/0-7",
+            "hra/0/0-7/p/k",
+            "monitor/1/8-18",
+            "mon/0/8-18/p/k",
+            "moni/0/8-18/p/k",
+            "monit/0/8-18/p/k",
+            "a/1/19-20"),
+        tokens(
+            new StemPrefixFilter(
+                new CzechStemFilter(tokenizer("hradech monitorem a"), false), 3, 5)));
+  }
+
+  @Test
+  public void test_shared_prefixes_are_emitted_once() throws IOException {
+    assertEquals(
+        List.of(
+            "hradech/1/0-7/k",
+            "hr/0/0-7/p/k",
+            "hra/0/0-7/p/k",
+            "hrad/0/0-7/p/k",
+            "hrade/0/0-7/p/k",
+            "hradec/0/0-7/p/k",
+            "hrad/0/0-7"),
+        tokens(
+            new StemPrefixFilter(
+                new CzechStemFilter(new KeywordRepeatFilter(tokenizer("hradech")), false),
+                2,
+                10)));
+  }
+
+  /** Emits the given words, those starting with {@code =} at the position of the previous one. */
+  private static final class Words extends TokenStream {
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final PositionIncrementAttribute posIncAttr =
+        addAttribute(PositionIncrementAttribute.class);
+    private final String[] words;
+    private int next;
+
+    Words(String text) {
+      words = text.split(" ");
+    }
+
+    @Override
+    public boolean incrementToken() {
+      if (next == words.length) {
+        return false;
+      }
+      clearAttributes();
+      final String word = words[next++];
+      final boolean samePosition = word.startsWith("=");
+      termAtt.append(samePosition ? word.substring(1) : word);
+      posIncAttr.setPositionIncrement(samePosition ? 0 : 1);
+      return true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      super.reset();
+      next = 0;
+    }
+  }
+
+  @Test
+  public void test_prefixes_are_emitted_once_per_position() throws IOException {
+    // the third token shares its prefixes with the first one, not with the one just before
+    assertEquals(
+        List.of(
+            "hradech/1/0-0",
+            "hr/0/0-0/p/k",
+            "hra/0/0-0/p/k",
+            "Hradech/0/0-0",
+            "Hr/0/0-0/p/k",
+            "Hra/0/0-0/p/k",
+            "hrad/0/0-0",
+            "hradec/1/0-0",
+            "hr/0/0-0/p/k",
+            "hra/0/0-0/p/k"),
+        tokens(new StemPrefixFilter(new Words("hradech =Hradech =hrad hradec"), 2, 3)));
+  }
+
+  @Test
+  public void test_upstream_original_is_restored() throws IOException {
+    // the original comes from attributes the prefixes rewrote, it must not inherit type or keyword
+    assertEquals(
+        List.of(
+            "skoda/1/0-5",
+            "sk/0/0-5/p/k",
+            "sko/0/0-5/p/k",
+            "škoda/0/0-5",
+            "šk/0/0-5/p/k",
+            "ško/0/0-5/p/k"),
+        tokens(new StemPrefixFilter(new ASCIIFoldFilter(tokenizer("škoda"), true), 2, 3)));
+  }
+
+  @Test
+  public void test_surrogate_pairs_are_not_split() throws IOException {
+    assertEquals(
+        List.of("a𐐀𐐨b/1/0-6", "a/0/0-6/p/k", "a𐐀/0/0-6/p/k", "a𐐀𐐨/0/0-6/p/k"),
+        tokens(new StemPrefixFilter(tokenizer("a𐐀𐐨b"), 1, 10)));
+  }
+
+  @Test
+  public void test_gram_settings() {
+    final IllegalArgumentException min =
+        assertThrows(
+            IllegalArgumentException.class, () -> new StemPrefixFilter(tokenizer("hrad"), 0, 3));
+    assertTrue(min.getMessage().contains("[min_gram]"), min.getMessage());
+    final IllegalArgumentException max =
+        assertThrows(
+            IllegalArgumentException.class, () -> new StemPrefixFilter(tokenizer("hrad"), 4, 3));
+    assertTrue(max.getMessage().contains("[max_gram]"), max.getMessage());
+  }
+}
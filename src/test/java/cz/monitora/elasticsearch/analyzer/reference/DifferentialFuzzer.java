@@ -0,0 +1,242 @@
+package cz.monitora.elasticsearch.analyzer.reference;
+
+import cz.monitora.elasticsearch.analyzer.util.ASCIIFolder;
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Stems generated tokens with a reference and a candidate stemmer and collects the tokens whose
+ * stems differ, each shrunk to a minimal token that still differs.
+ *
+ * <p>Tokens are derived from corpus words: as they are, with the ending replaced by endings of
+ * other words, with letters swapped for letters with other diacritics, with odd characters
+ * inserted, and purely random strings of the alphabet. Batches of tokens are generated and stemmed
+ * in parallel, every batch with its own stemmers and its own {@link Random} derived from the seed,
+ * so a run is reproducible from the seed whatever the number of threads.
+ */
+public final class DifferentialFuzzer {
+  private static final int BATCH = 4096;
+  private static final int MAX_LENGTH = 40;
+  private static final String ODD = "0123456789-'.@_RŠÁßæ\u00ad\u0301\ud801\udc00";
+
+  private final List<String> words;
+  private final List<String> endings;
+  private final char[] alphabet;
+  // letters of the alphabet that fold to the same ASCII, by letter
+  private final Map<Character, char[]> variants;
+  private final UnaryOperator<String> normalizer;
+
+  /** A token that is stemmed differently. */
+  public static final class Mismatch {
+    public final String token;
+    public final String shrunk;
+    public final String expected;
+    public final String actual;
+
+    Mismatch(String token, String shrunk, String expected, String actual) {
+      this.token = token;
+      this.shrunk = shrunk;
+      this.expected = expected;
+      this.actual = actual;
+    }
+
+    @Override
+    public String toString() {
+      return "\""
+          + shrunk
+          + "\": expected \""
+          + expected
+          + "\" but was \""
+          + actual
+          + "\" (found as \""
+          + token
+          + "\")";
+    }
+  }
+
+  /**
+   * @param words corpus words, lowercase
+   * @param alphabet lowercase letters of the language, with diacritics
+   * @param normalizer applied to every generated token, e.g. folding for stemmers of folded text
+   */
+  public DifferentialFuzzer(
+      Collection<String> words, String alphabet, UnaryOperator<String> normalizer) {
+    this.words = words.stream().filter(w -> !w.isEmpty()).distinct().collect(Collectors.toList());
+    if (this.words.isEmpty()) {
+      throw new IllegalArgumentException("No corpus words");
+    }
+    final Set<String> endings = new LinkedHashSet<>();
+    for (String word : this.words) {
+      for (int i = 1; i <= 4 && i < word.length(); i++) {
+        endings.add(word.substring(word.length() - i));
+      }
+    }
+    this.endings = List.copyOf(endings);
+    this.alphabet = alphabet.toCharArray();
+    final Map<String, List<Character>> byFold = new HashMap<>();
+    for (char c : this.alphabet) {
+      byFold.computeIfAbsent(ASCIIFolder.fold(String.valueOf(c)), k -> new ArrayList<>()).add(c);
+    }
+    variants = new HashMap<>();
+    for (List<Character> letters : byFold.values()) {
+      final char[] chars = new char[letters.size()];
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = letters.get(i);
+      }
+      for (char c : chars) {
+        variants.put(c, chars);
+      }
+    }
+    this.normalizer = normalizer;
+  }
+
+  /**
+   * Stems {@code tokens} generated tokens with stemmers from both suppliers.
+   *
+   * @return the mismatches, at most {@code maxMismatches}, in the order of the generated tokens
+   */
+  public List<Mismatch> run(
+      Supplier<Stemmer> reference,
+      Supplier<Stemmer> candidate,
+      long seed,
+      int tokens,
+      int maxMismatches) {
+    final int batches = (tokens + BATCH - 1) / BATCH;
+    return IntStream.range(0, batches)
+        .parallel()
+        .mapToObj(
+            batch -> {
+              final Random random = new Random(seed * 31 + batch);
+              final Stemmer expected = reference.get();
+              final Stemmer actual = candidate.get();
+              final List<Mismatch> mismatches = new ArrayList<>();
+              final int count = Math.min(BATCH, tokens - batch * BATCH);
+              for (int i = 0; i < count && mismatches.size() < maxMismatches; i++) {
+                final String token = normalizer.apply(token(random));
+                if (!Objects.equals(stem(expected, token), stem(actual, token))) {
+                  mismatches.add(mismatch(token, reference, candidate));
+                }
+              }
+              return mismatches;
+            })
+        .flatMap(List::stream)
+        .limit(maxMismatches)
+        .collect(Collectors.toList());
+  }
+
+  /** A random token, from the corpus most of the time. */
+  String token(Random random) {
+    final String word = words.get(random.nextInt(words.size()));
+    final StringBuilder token = new StringBuilder(MAX_LENGTH);
+    switch (random.nextInt(10)) {
+      case 0:
+      case 1:
+        token.append(word);
+        break;
+      case 2:
+      case 3:
+      case 4:
+        // another ending, or a few of them
+        token.append(word, 0, word.length() - random.nextInt(Math.min(word.length(), 5)));
+        for (int i = random.nextInt(3); i >= 0; i--) {
+          token.append(endings.get(random.nextInt(endings.size())));
+        }
+        break;
+      case 5:
+      case 6:
+        // other diacritics
+        token.append(word);
+        for (int i = random.nextInt(3); i >= 0; i--) {
+          final int at = random.nextInt(token.length());
+          final char[] letters = variants.get(token.charAt(at));
+          if (letters != null) {
+            token.setCharAt(at, letters[random.nextInt(letters.length)]);
+          }
+        }
+        break;
+      case 7:
+        // odd characters, including half of a surrogate pair
+        token.append(word);
+        for (int i = random.nextInt(2); i >= 0; i--) {
+          final int odd = random.nextInt(ODD.length());
+          token.insert(random.nextInt(token.length() + 1), ODD.charAt(odd));
+        }
+        break;
+      default:
+        final int length = random.nextInt(random.nextBoolean() ? 8 : MAX_LENGTH + 1);
+        for (int i = 0; i < length; i++) {
+          token.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+    }
+    if (token.length() > MAX_LENGTH) {
+      token.setLength(MAX_LENGTH);
+    }
+    return token.toString();
+  }
+
+  private static Mismatch mismatch(
+      String token, Supplier<Stemmer> reference, Supplier<Stemmer> candidate) {
+    final String shrunk = shrink(token, reference, candidate);
+    return new Mismatch(
+        token, shrunk, stem(reference.get(), shrunk), stem(candidate.get(), shrunk));
+  }
+
+  /**
+   * Greedily removes characters and folds letters with diacritics while the stems still differ.
+   * Every check uses new stemmers, so a mismatch that depends on earlier tokens does not shrink.
+   */
+  static String shrink(String token, Supplier<Stemmer> reference, Supplier<Stemmer> candidate) {
+    String current = token;
+    boolean shrunk = true;
+    while (shrunk) {
+      shrunk = false;
+      for (int i = 0; i < current.length() && !shrunk; i++) {
+        final String removed = current.substring(0, i) + current.substring(i + 1);
+        if (differs(removed, reference, candidate)) {
+          current = removed;
+          shrunk = true;
+        }
+      }
+      for (int i = 0; i < current.length() && !shrunk; i++) {
+        final String folded = ASCIIFolder.fold(current.substring(i, i + 1));
+        if (folded.length() == 1 && folded.charAt(0) != current.charAt(i)) {
+          final String plain = current.substring(0, i) + folded + current.substring(i + 1);
+          if (differs(plain, reference, candidate)) {
+            current = plain;
+            shrunk = true;
+          }
+        }
+      }
+    }
+    return current;
+  }
+
+  private static boolean differs(
+      String token, Supplier<Stemmer> reference, Supplier<Stemmer> candidate) {
+    return !Objects.equals(stem(reference.get(), token), stem(candidate.get(), token));
+  }
+
+  /** The stem, or the exception the stemmer threw. */
+  static String stem(Stemmer stemmer, String token) {
+    // room to spare, as in a term attribute
+    final char[] buffer = new char[token.length() + 16];
+    token.getChars(0, token.length(), buffer, 0);
+    try {
+      return new String(buffer, 0, stemmer.stem(buffer, token.length()));
+    } catch (RuntimeException e) {
+      return e.getClass().getName();
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package cz.monitora.elasticsearch.analyzer.reference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.StemmerEvaluation;
+import cz.monitora.elasticsearch.analyzer.StemmerEvaluation.Group;
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemmer;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmer;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmerASCIIFold;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemmer;
+import cz.monitora.elasticsearch.analyzer.slovak.SlovakStemmerASCIIFold;
+import cz.monitora.elasticsearch.analyzer.slovenian.SlovenianStemmer;
+import cz.monitora.elasticsearch.analyzer.util.ASCIIFolder;
+import cz.monitora.elasticsearch.analyzer.util.StemCache;
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Compares every stemmer with its frozen reference on generated tokens, see {@link
+ * DifferentialFuzzer}. The seed is fixed so that every build checks the same tokens; other seeds
+ * can be explored with {@code -Pfuzz.seed} and the number of tokens per stemmer can be raised with
+ * {@code -Pfuzz.tokens}.
+ */
+public class StemmerDifferentialTest {
+  private static final long SEED = Long.getLong("fuzz.seed", 20240601L);
+  private static final int TOKENS = Integer.getInteger("fuzz.tokens", 100_000);
+  private static final int MAX_MISMATCHES = 20;
+
+  private static final String CZECH = "aábcčdďeéěfghiíjklmnňoópqrřsštťuúůvwxyýzž";
+  private static final String SLOVAK = "aáäbcčdďeéfghiíjklĺľmnňoóôpqrŕsštťuúvwxyýzž";
+  private static final String CROATIAN = "abcčćdđefghijklmnoprsštuvzž";
+  private static final String SLOVENIAN = "abcčdefghijklmnoprsštuvzž";
+
+  private static Arguments pair(
+      String name,
+      String language,
+      String alphabet,
+      UnaryOperator<String> normalizer,
+      Supplier<Stemmer> reference,
+      Supplier<Stemmer> candidate) {
+    return Arguments.of(name, language, alphabet, normalizer, reference, candidate);
+  }
+
+  /** The candidate behind a small cache, so that entries are evicted all the time. */
+  private static Supplier<Stemmer> cached(Supplier<Stemmer> stemmer) {
+    return () -> {
+      final StemCache cache = new StemCache(64);
+      final Stemmer uncached = stemmer.get();
+      return (s, len) -> cache.stem(s, len, uncached);
+    };
+  }
+
+  private static Stream<Arguments> stemmers() {
+    final UnaryOperator<String> asIs = UnaryOperator.identity();
+    final UnaryOperator<String> folded = ASCIIFolder::fold;
+    return Stream.of(
+        pair(
+            "czech",
+            "czech",
+            CZECH,
+            asIs,
+            () -> new ReferenceCzechStemmer()::stem,
+            () -> new CzechStemmer()::stem),
+        pair(
+            "czech cached",
+            "czech",
+            CZECH,
+            asIs,
+            () -> new ReferenceCzechStemmer()::stem,
+            cached(() -> new CzechStemmer()::stem)),
+        pair(
+            "czech_asciifold",
+            "czech",
+            CZECH,
+            folded,
+            () -> new ReferenceCzechStemmerASCIIFold()::stem,
+            () -> new CzechStemmerASCIIFold()::stem),
+        pair(
+            "slovak",
+            "slovak",
+            SLOVAK,
+            asIs,
+            () -> new ReferenceSlovakStemmer()::stem,
+            () -> new SlovakStemmer()::stem),
+        pair(
+            "slovak_asciifold",
+            "slovak",
+            SLOVAK,
+            folded,
+            () -> new ReferenceSlovakStemmerASCIIFold()::stem,
+            () -> new SlovakStemmerASCIIFold()::stem),
+        pair(
+            "croatian",
+            "croatian",
+            CROATIAN,
+            asIs,
+            () -> new ReferenceCroatianStemmer()::stem,
+            () -> new CroatianStemmer()::stem),
+        pair(
+            "croatian_asciifold",
+            "croatian",
+            CROATIAN,
+            folded,
+            () -> new ReferenceCroatianStemmer(true)::stem,
+            () -> new CroatianStemmer(true)::stem),
+        pair(
+            "slovenian",
+            "slovenian",
+            SLOVENIAN,
+            asIs,
+            () -> new ReferenceSlovenianStemmer()::stem,
+            () -> new SlovenianStemmer()::stem),
+        // the Slovenian rules are ASCII, the filter only folds the input
+        pair(
+            "slovenian_asciifold",
+            "slovenian",
+            SLOVENIAN,
+            folded,
+            () -> new ReferenceSlovenianStemmer()::stem,
+            () -> new SlovenianStemmer()::stem));
+  }
+
+  /** Words of the evaluation datasets of the language. */
+  private static List<String> corpus(String language) throws IOException {
+    final List<String> words = new ArrayList<>();
+    for (List<Group> groups : StemmerEvaluation.datasets(language).values()) {
+      for (Group group : groups) {
+        for (String form : group.forms) {
+          for (String word : form.trim().split("\\s+")) {
+            words.add(word.toLowerCase(Locale.ROOT));
+          }
+        }
+      }
+    }
+    return words;
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("stemmers")
+  public void test_same_stems_as_reference(
+      String name,
+      String language,
+      String alphabet,
+      UnaryOperator<String> normalizer,
+      Supplier<Stemmer> reference,
+      Supplier<Stemmer> candidate)
+      throws IOException {
+    final DifferentialFuzzer fuzzer =
+        new DifferentialFuzzer(corpus(language), alphabet, normalizer);
+    final List<DifferentialFuzzer.Mismatch> mismatches =
+        fuzzer.run(reference, candidate, SEED, TOKENS, MAX_MISMATCHES);
+    assertTrue(
+        mismatches.isEmpty(),
+        () ->
+            name
+                + " differs from the reference (-Pfuzz.seed="
+                + SEED
+                + "):\n"
+                + mismatches.stream().map(Object::toString).collect(Collectors.joining("\n")));
+  }
+}
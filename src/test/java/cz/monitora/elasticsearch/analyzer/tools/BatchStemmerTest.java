@@ -0,0 +1,90 @@
+package cz.monitora.elasticsearch.analyzer.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmer;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmerASCIIFold;
+import cz.monitora.elasticsearch.analyzer.util.Stemmer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class BatchStemmerTest {
+
+  private static List<String> stem(BatchStemmer stemmer, List<String> phrases, boolean lowercase)
+      throws IOException {
+    final List<String> stems = new ArrayList<>();
+    stemmer.stem(phrases, lowercase, stems::add);
+    return stems;
+  }
+
+  private static String stem(Stemmer stemmer, String word) {
+    final char[] buffer = word.toCharArray();
+    return new String(buffer, 0, stemmer.stem(buffer, buffer.length));
+  }
+
+  @Test
+  public void test_stems_like_the_stemmer() throws IOException {
+    final CzechStemmer czech = new CzechStemmer();
+    assertEquals(
+        List.of(
+            stem(czech, "hradech"),
+            stem(czech, "pražských") + " " + stem(czech, "hradech"),
+            "",
+            stem(czech, "praha")),
+        stem(
+            BatchStemmer.of("czech", false),
+            List.of("hradech", "  pražských \t hradech ", " ", "Praha"),
+            true));
+  }
+
+  @Test
+  public void test_lowercase_is_optional() throws IOException {
+    final List<String> stems = stem(BatchStemmer.of("czech", false), List.of("HRADECH"), false);
+    assertEquals(List.of(stem(new CzechStemmer(), "HRADECH")), stems);
+  }
+
+  @Test
+  public void test_with_asciifold() throws IOException {
+    final List<String> stems =
+        stem(BatchStemmer.of("czech", true), List.of("Pražských hradech"), true);
+    final CzechStemmerASCIIFold folded = new CzechStemmerASCIIFold();
+    assertEquals(List.of(stem(folded, "prazskych") + " " + stem(folded, "hradech")), stems);
+  }
+
+  @Test
+  public void test_long_words_are_not_stemmed() throws IOException {
+    final String word = "hradech".repeat(50);
+    assertEquals(List.of(word), stem(BatchStemmer.of("czech", false), List.of(word), true));
+  }
+
+  @Test
+  public void test_unknown_language() {
+    assertThrows(IllegalArgumentException.class, () -> BatchStemmer.of("polish", false));
+  }
+
+  @Test
+  public void test_concurrent_batches() {
+    final BatchStemmer stemmer = BatchStemmer.of("slovak", false);
+    final List<String> phrases =
+        IntStream.range(0, 1000).mapToObj(i -> "mestách " + i).collect(Collectors.toList());
+    final List<List<String>> results =
+        IntStream.range(0, 64)
+            .parallel()
+            .mapToObj(
+                i -> {
+                  try {
+                    return stem(stemmer, phrases, true);
+                  } catch (IOException e) {
+                    throw new AssertionError(e);
+                  }
+                })
+            .collect(Collectors.toList());
+    for (List<String> stems : results) {
+      assertEquals(results.get(0), stems);
+    }
+  }
+}
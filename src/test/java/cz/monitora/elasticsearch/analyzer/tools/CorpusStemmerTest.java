@@ -0,0 +1,43 @@
+package cz.monitora.elasticsearch.analyzer.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class CorpusStemmerTest {
+
+  @TempDir Path dir;
+
+  @ParameterizedTest
+  @ValueSource(longs = {1, 5, 64, Long.MAX_VALUE})
+  public void test_chunks_count_like_the_whole_file(long chunkBytes) throws IOException {
+    final Path file = dir.resolve("corpus.txt");
+    Files.writeString(file, "Pes psa,\npsovi\tžena ŽENY ženou.\r\nPes  x" + "a".repeat(300) + " pes");
+
+    final List<CorpusStemmer.Chunk> chunks = CorpusStemmer.split(file, chunkBytes);
+    CorpusStemmer.TermCounts counts = new CorpusStemmer.TermCounts();
+    long end = 0;
+    for (CorpusStemmer.Chunk chunk : chunks) {
+      assertEquals(end, chunk.start);
+      end = chunk.end;
+      counts = CorpusStemmer.TermCounts.merge(counts, CorpusStemmer.count(chunk));
+    }
+    assertEquals(Files.size(file), end);
+
+    final Map<String, Long> actual = new HashMap<>();
+    for (int term : counts.byCount()) {
+      actual.put(new String(counts.key(term)), counts.count(term));
+    }
+    assertEquals(
+        Map.of("pes", 3L, "psa", 1L, "psovi", 1L, "žena", 1L, "ženy", 1L, "ženou", 1L), actual);
+    assertEquals(8, counts.total());
+  }
+}
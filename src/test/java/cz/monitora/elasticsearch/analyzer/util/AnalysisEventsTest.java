@@ -0,0 +1,95 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseFilter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AnalysisEventsTest {
+  private static final String SLOW_TOKEN = "cz.monitora.analysis.SlowToken";
+  private static final String THROUGHPUT = "cz.monitora.analysis.FilterThroughput";
+
+  @TempDir Path dir;
+
+  private static void analyze(String text, AnalysisStats stats) throws IOException {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader(text));
+    try (TokenStream stream = new LowerCaseFilter(tokenizer, false, stats)) {
+      stream.reset();
+      while (stream.incrementToken()) {}
+      stream.end();
+    }
+  }
+
+  private List<RecordedEvent> slowTokens(String text, Duration threshold) throws IOException {
+    final Path file = dir.resolve("recording.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(SLOW_TOKEN).withThreshold(threshold);
+      recording.start();
+      analyze(text, new AnalysisStats("test"));
+      recording.stop();
+      recording.dump(file);
+    }
+    return RecordingFile.readAllEvents(file).stream()
+        .filter(e -> e.getEventType().getName().equals(SLOW_TOKEN))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void test_slow_tokens() throws IOException {
+    final String longToken = "Ab".repeat(50);
+    final List<RecordedEvent> events = slowTokens("Praha " + longToken, Duration.ZERO);
+
+    assertEquals(2, events.size());
+    final RecordedEvent event = events.get(1);
+    assertEquals("test", event.getString("filter"));
+    assertEquals("Ab".repeat(16), event.getString("token"));
+    assertEquals(100, event.getInt("length"));
+    assertEquals(longToken.hashCode(), event.getInt("hash"));
+    assertEquals("Praha", events.get(0).getString("token"));
+  }
+
+  @Test
+  public void test_fast_tokens_are_not_recorded() throws IOException {
+    assertEquals(List.of(), slowTokens("Praha Brno", Duration.ofSeconds(10)));
+  }
+
+  @Test
+  public void test_throughput() throws Exception {
+    final AnalysisStats stats = AnalysisStats.forType("monitora_events_test");
+    final BlockingQueue<RecordedEvent> events = new ArrayBlockingQueue<>(100);
+    try (RecordingStream stream = new RecordingStream()) {
+      stream.enable(THROUGHPUT).withPeriod(Duration.ofMillis(100));
+      stream.onEvent(
+          THROUGHPUT,
+          e -> {
+            if (e.getString("filter").equals("monitora_events_test")) {
+              events.offer(e);
+            }
+          });
+      stream.startAsync();
+      analyze("Praha PRAHA praze", stats);
+
+      final RecordedEvent event = events.poll(30, TimeUnit.SECONDS);
+      assertNotNull(event);
+      assertEquals(3, event.getLong("tokens"));
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemFilter;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilter;
+import cz.monitora.elasticsearch.analyzer.lowercase.LowerCaseFilter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.jupiter.api.Test;
+
+public class AnalysisStatsTest {
+
+  private static void consume(TokenStream stream) throws IOException {
+    stream.reset();
+    while (stream.incrementToken()) {}
+    stream.end();
+    stream.close();
+  }
+
+  private static Tokenizer tokenizer(String text) {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader(text));
+    return tokenizer;
+  }
+
+  private static TokenStream markKeyword(TokenStream in, String word) {
+    return new SetKeywordMarkerFilter(in) {
+      private final CharTermAttribute term = addAttribute(CharTermAttribute.class);
+
+      @Override
+      protected boolean isKeyword() {
+        return term.toString().equals(word);
+      }
+    };
+  }
+
+  @Test
+  public void test_stem_filter_counts() throws IOException {
+    final AnalysisStats stats = new AnalysisStats("test");
+    final StemFilterOptions options =
+        new StemFilterOptions(16, null, null, false, ProtectedWords.of(List.of("škoda"), false))
+            .withStats(stats);
+    final Tokenizer tokenizer = tokenizer("škoda praha hradech hradech hradech lidé");
+    consume(new CzechStemFilter(markKeyword(tokenizer, "praha"), false, options));
+
+    assertEquals(6, stats.tokens());
+    assertEquals(4, stats.stemmed());
+    assertEquals(1, stats.protectedWords());
+    assertEquals(1, stats.keywords());
+    assertEquals(0, stats.skipped());
+    assertEquals(2, stats.cacheHits());
+    assertEquals(2, stats.cacheMisses());
+    assertEquals(0.5, stats.cacheHitRate());
+  }
+
+  @Test
+  public void test_skipped_tokens() throws IOException {
+    final AnalysisStats stats = new AnalysisStats("test");
+    final StemFilterOptions options = StemFilterOptions.DEFAULT.withStats(stats);
+    consume(
+        new CroatianStemFilter(
+            tokenizer("https://example.com/a/very/long/url hrvatskoga"),
+            options,
+            16,
+            Long.MAX_VALUE,
+            false,
+            new LongAdder()));
+
+    assertEquals(2, stats.tokens());
+    assertEquals(1, stats.stemmed());
+    assertEquals(1, stats.skipped());
+  }
+
+  @Test
+  public void test_counts_are_flushed_per_field_value() throws IOException {
+    final AnalysisStats stats = new AnalysisStats("test");
+    final Tokenizer tokenizer = tokenizer("Praha PRAHA praze");
+    final TokenStream stream = new LowerCaseFilter(tokenizer, true, stats);
+    consume(stream);
+    assertEquals(3, stats.tokens());
+
+    // reused for the next field value, as analyzers do
+    tokenizer.setReader(new StringReader("Brno"));
+    stream.reset();
+    assertTrue(stream.incrementToken());
+    assertEquals(3, stats.tokens());
+    while (stream.incrementToken()) {}
+    stream.end();
+    assertEquals(4, stats.tokens());
+    stream.close();
+  }
+
+  @Test
+  public void test_every_interval_token_is_timed() {
+    final AnalysisStats stats = new AnalysisStats("test");
+    final AnalysisStats.Recorder recorder = stats.newRecorder();
+    for (int i = 0; i < 3 * AnalysisStats.SAMPLE_INTERVAL - 1; i++) {
+      recorder.stop(recorder.start());
+      if (i % 100 == 0) {
+        recorder.flush();
+      }
+    }
+    recorder.flush();
+
+    assertEquals(3 * AnalysisStats.SAMPLE_INTERVAL - 1, stats.tokens());
+    assertEquals(2, stats.sampledTokens());
+    assertTrue(stats.nanosPerToken() >= 0);
+  }
+
+  @Test
+  public void test_memory_is_tracked_by_kind() {
+    final Object owner = new Object();
+    AnalysisStats.trackMemory("test", true, owner, 100);
+    AnalysisStats.trackMemory("test", false, owner, 10);
+    final AnalysisStats.Memory memory = AnalysisStats.memory().get("test");
+    assertEquals(100, memory.offHeapBytes());
+    assertEquals(10, memory.heapBytes());
+    Reference.reachabilityFence(owner);
+
+    final StemCache cache = new StemCache(1024);
+    assertTrue(AnalysisStats.memory().containsKey("caches"));
+    assertTrue(cache.ramBytesUsed() > 2 * 1024 * StemCache.MAX_LENGTH * Character.BYTES);
+  }
+}
@@ -0,0 +1,89 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.asciifold.ASCIIFoldFilter;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.KeywordRepeatFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.junit.jupiter.api.Test;
+
+public class PositionTermsTest {
+  private static final StemFilterOptions DEDUP =
+      StemFilterOptions.DEFAULT.withDedupSamePosition(true);
+
+  private static Tokenizer tokenizer(String text) {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader(text));
+    return tokenizer;
+  }
+
+  private static List<String> tokens(TokenStream stream) throws IOException {
+    final CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    final PositionIncrementAttribute posInc =
+        stream.addAttribute(PositionIncrementAttribute.class);
+    final List<String> result = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      result.add(term + "/" + posInc.getPositionIncrement());
+    }
+    stream.end();
+    stream.close();
+    return result;
+  }
+
+  @Test
+  public void test_unchanged_stems_of_repeated_keywords() throws IOException {
+    final String text = "a hradech a a";
+    assertEquals(
+        List.of("a/1", "a/0", "hradech/1", "hrad/0", "a/1", "a/0", "a/1", "a/0"),
+        tokens(new CzechStemFilter(new KeywordRepeatFilter(tokenizer(text)), false)));
+    assertEquals(
+        List.of("a/1", "hradech/1", "hrad/0", "a/1", "a/1"),
+        tokens(new CzechStemFilter(new KeywordRepeatFilter(tokenizer(text)), false, DEDUP)));
+  }
+
+  @Test
+  public void test_folded_originals() throws IOException {
+    // with fold_input the original of a folded token folds and stems the same
+    final StemFilterOptions options =
+        new StemFilterOptions(0, null, null, true, null).withDedupSamePosition(true);
+    final TokenStream folded = new ASCIIFoldFilter(tokenizer("ženy hradech"), true);
+    assertEquals(List.of("zn/1", "hrad/1"), tokens(new CzechStemFilter(folded, false, options)));
+  }
+
+  @Test
+  public void test_terms_of_one_position() {
+    final TokenStream source = new WhitespaceTokenizer();
+    final CharTermAttribute term = source.addAttribute(CharTermAttribute.class);
+    final PositionIncrementAttribute posInc =
+        source.addAttribute(PositionIncrementAttribute.class);
+    final PositionTerms terms = new PositionTerms(source);
+
+    final String[][] tokens = {
+      {"prah", "1", "true"},
+      {"praha", "0", "true"},
+      {"prah", "0", "false"},
+      {"pra", "0", "true"},
+      {"praha", "0", "false"},
+      {"", "0", "true"},
+      {"", "0", "false"},
+      {"praha", "1", "true"},
+      {"prah", "0", "true"},
+      {"praha", "2", "true"}
+    };
+    for (String[] token : tokens) {
+      term.setEmpty().append(token[0]);
+      posInc.setPositionIncrement(Integer.parseInt(token[1]));
+      assertEquals(Boolean.parseBoolean(token[2]), terms.add(), String.join("/", token));
+    }
+  }
+}
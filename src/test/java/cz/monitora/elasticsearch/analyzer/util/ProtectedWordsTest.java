@@ -0,0 +1,71 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProtectedWordsTest {
+
+  private static boolean contains(ProtectedWords words, String term) {
+    // the term buffer is usually longer than the term
+    final char[] buffer = Arrays.copyOf(term.toCharArray(), term.length() + 8);
+    Arrays.fill(buffer, term.length(), buffer.length, 'x');
+    return words.contains(buffer, term.length());
+  }
+
+  @Test
+  public void test_contains() {
+    final ProtectedWords words =
+        ProtectedWords.of(List.of("škoda", "kofola", "kofola", "", "o2"), false);
+    assertEquals(3, words.size());
+    assertTrue(contains(words, "škoda"));
+    assertTrue(contains(words, "kofola"));
+    assertTrue(contains(words, "o2"));
+    assertFalse(contains(words, "skoda"));
+    assertFalse(contains(words, "kofol"));
+    assertFalse(contains(words, "kofolax"));
+    assertFalse(contains(words, ""));
+  }
+
+  @Test
+  public void test_many_words() {
+    final List<String> list = new ArrayList<>();
+    for (int i = 0; i < 50_000; i++) {
+      list.add("brand" + i);
+    }
+    final ProtectedWords words = ProtectedWords.of(list, false);
+    assertEquals(50_000, words.size());
+    for (int i = 0; i < 50_000; i++) {
+      assertTrue(contains(words, "brand" + i));
+      assertFalse(contains(words, "brand" + (i + 50_000)));
+    }
+  }
+
+  @Test
+  public void test_ascii_fold() {
+    final ProtectedWords words = ProtectedWords.of(List.of("škoda", "Žďár"), true);
+    assertTrue(contains(words, "skoda"));
+    assertTrue(contains(words, "Zdar"));
+    assertFalse(contains(words, "škoda"));
+  }
+
+  @Test
+  public void test_open_shares_set(@TempDir Path dir) throws IOException {
+    final Path file = dir.resolve("brands.txt");
+    Files.write(file, List.of("# brands", "", " škoda ", "kofola"), StandardCharsets.UTF_8);
+    final ProtectedWords words = ProtectedWords.open(file, false);
+    assertSame(words, ProtectedWords.open(dir.resolve("./brands.txt"), false));
+    assertNotSame(words, ProtectedWords.open(file, true));
+    assertEquals(2, words.size());
+    assertTrue(contains(words, "škoda"));
+    assertFalse(contains(words, "# brands"));
+  }
+}
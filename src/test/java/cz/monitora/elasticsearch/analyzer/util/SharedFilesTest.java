@@ -0,0 +1,127 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SharedFilesTest {
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private String load(Path path) throws IOException {
+    loads.incrementAndGet();
+    return Files.readString(path, StandardCharsets.UTF_8);
+  }
+
+  private static void write(Path file, String content, long modified) throws IOException {
+    Files.writeString(file, content, StandardCharsets.UTF_8);
+    Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+  }
+
+  @Test
+  public void test_changed_file_is_loaded_again(@TempDir Path dir) throws IOException {
+    final SharedFiles<String> files = new SharedFiles<>();
+    final Path file = dir.resolve("words.txt");
+    write(file, "praha", 1_000_000);
+    final String before = files.open(file, "", this::load);
+    assertEquals("praha", before);
+    assertSame(before, files.open(dir.resolve("./words.txt"), "", this::load));
+    assertEquals(1, loads.get());
+
+    // same size, only the modification time tells the change
+    write(file, "brno!", 2_000_000);
+    final String after = files.open(file, "", this::load);
+    assertEquals("brno!", after);
+    assertSame(after, files.open(file, "", this::load));
+    assertEquals(2, loads.get());
+
+    assertEquals("brno!", files.open(file, "folded", this::load));
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  public void test_failed_load_keeps_current_version(@TempDir Path dir) throws IOException {
+    final SharedFiles<String> files = new SharedFiles<>();
+    final Path file = dir.resolve("words.txt");
+    write(file, "praha", 1_000_000);
+    final String current = files.open(file, "", this::load);
+
+    write(file, "broken", 2_000_000);
+    final IOException e =
+        assertThrows(
+            IOException.class,
+            () ->
+                files.open(
+                    file,
+                    "",
+                    path -> {
+                      throw new IOException("Bad line");
+                    }));
+    assertEquals("Bad line", e.getMessage());
+
+    write(file, "praha", 1_000_000);
+    assertSame(current, files.open(file, "", this::load));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void test_concurrent_opens_share_one_load(@TempDir Path dir) throws Exception {
+    final SharedFiles<String> files = new SharedFiles<>();
+    final Path file = dir.resolve("words.txt");
+    write(file, "praha", 1_000_000);
+    final CountDownLatch release = new CountDownLatch(1);
+    final SharedFiles.Loader<String> slow =
+        path -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new IOException(e);
+          }
+          return load(path);
+        };
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<String>> opened = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        opened.add(executor.submit(() -> files.open(file, "", slow)));
+      }
+      // a slow load does not block other files
+      final Path other = dir.resolve("other.txt");
+      write(other, "brno", 1_000_000);
+      assertEquals("brno", files.open(other, "", this::load));
+
+      release.countDown();
+      final String first = opened.get(0).get();
+      for (Future<String> future : opened) {
+        assertSame(first, future.get());
+      }
+      assertEquals(2, loads.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void test_stem_overrides_reload(@TempDir Path dir) throws IOException {
+    final Path file = dir.resolve("overrides.tsv");
+    Files.write(file, List.of("psa\tpes"), StandardCharsets.UTF_8);
+    final StemOverrides before = StemOverrides.open(file, false);
+    Files.write(file, List.of("psa\tpes", "lidé\tčlověk"), StandardCharsets.UTF_8);
+    final StemOverrides after = StemOverrides.open(file, false);
+    assertNotSame(before, after);
+    assertEquals(1, before.size());
+    assertEquals(2, after.size());
+  }
+}
@@ -0,0 +1,70 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemmer;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class StemCacheTest {
+
+  private static String stem(StemCache cache, Stemmer stemmer, String val) {
+    char[] ch = val.toCharArray();
+    return new String(Arrays.copyOfRange(ch, 0, cache.stem(ch, ch.length, stemmer)));
+  }
+
+  @Test
+  public void test_hits_return_the_same_stems() {
+    final Stemmer stemmer = new CzechStemmer()::stem;
+    final StemCache cache = new StemCache(64);
+    final String[] words = {"růžové", "extralize", "ivou", "stařenk", "invektivou"};
+    for (int round = 0; round < 3; round++) {
+      for (String word : words) {
+        char[] ch = word.toCharArray();
+        final String expected = new String(ch, 0, stemmer.stem(ch, ch.length));
+        assertEquals(expected, stem(cache, stemmer, word));
+      }
+    }
+    assertEquals(words.length, cache.misses());
+    assertEquals(2 * words.length, cache.hits());
+  }
+
+  @Test
+  public void test_eviction_keeps_results_correct() {
+    final Stemmer stemmer = new CzechStemmer()::stem;
+    final StemCache cache = new StemCache(4);
+    for (int i = 0; i < 1000; i++) {
+      final String word = "slovo" + (char) ('a' + i % 26) + "ech";
+      char[] ch = word.toCharArray();
+      assertEquals(new String(ch, 0, stemmer.stem(ch, ch.length)), stem(cache, stemmer, word));
+    }
+    assertEquals(1000, cache.hits() + cache.misses());
+  }
+
+  @Test
+  public void test_negative_results_are_not_cached() {
+    final StemCache cache = new StemCache(4);
+    final Stemmer failing = (s, len) -> -1;
+    assertEquals(-1, cache.stem("abc".toCharArray(), 3, failing));
+    assertEquals(-1, cache.stem("abc".toCharArray(), 3, failing));
+    assertEquals(0, cache.hits());
+  }
+
+  @Test
+  public void test_uncacheable_results_do_not_evict() {
+    // a single set of four entries
+    final StemCache cache = new StemCache(4);
+    final Stemmer stemmer = (s, len) -> len - 1;
+    final String[] words = {"ab", "cd", "ef", "gh"};
+    for (String word : words) {
+      assertEquals(word.substring(0, 1), stem(cache, stemmer, word));
+    }
+    final int longStem = StemCache.MAX_LENGTH + 1;
+    assertEquals(-1, cache.stem("ij".toCharArray(), 2, (s, len) -> -1));
+    assertEquals(longStem, cache.stem("kl".toCharArray(), 2, (s, len) -> longStem));
+    for (String word : words) {
+      assertEquals(word.substring(0, 1), stem(cache, stemmer, word));
+    }
+    assertEquals(words.length, cache.hits());
+  }
+}
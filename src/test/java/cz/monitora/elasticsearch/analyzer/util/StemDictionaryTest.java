@@ -0,0 +1,117 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StemDictionaryTest {
+
+  private static byte[] build(List<Map.Entry<String, String>> entries) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StemDictionary.write(entries, out);
+    return out.toByteArray();
+  }
+
+  private static String stem(Stemmer stemmer, String val, int capacity) {
+    char[] ch = Arrays.copyOf(val.toCharArray(), Math.max(val.length(), capacity));
+    return new String(ch, 0, stemmer.stem(ch, val.length()));
+  }
+
+  @Test
+  public void test_lookup() throws IOException {
+    final StemDictionary dictionary =
+        StemDictionary.wrap(
+            build(
+                List.of(
+                    Map.entry("lidé", "člověk"),
+                    Map.entry("psa", "pes"),
+                    Map.entry("psa", "ignored"))));
+    assertEquals(2, dictionary.size());
+    assertEquals(6, dictionary.maxStemLength());
+
+    char[] ch = "psa".toCharArray();
+    assertEquals(3, dictionary.lookup(ch, 3));
+    assertEquals("pes", new String(ch));
+    assertEquals(-1, dictionary.lookup("pes".toCharArray(), 3));
+    assertEquals(-1, dictionary.lookup("ps".toCharArray(), 2));
+    assertEquals("člověk", stem(dictionary.orElse((s, len) -> len), "lidé", 6));
+  }
+
+  @Test
+  public void test_fallback_for_unknown_terms() throws IOException {
+    final List<Map.Entry<String, String>> entries = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.add(Map.entry("slovo" + i, "s" + i));
+    }
+    final Stemmer stemmer =
+        StemDictionary.wrap(build(entries)).orElse((s, len) -> Math.min(len, 3));
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("s" + i, stem(stemmer, "slovo" + i, 0));
+      assertEquals("jin", stem(stemmer, "jiné" + i, 0));
+    }
+  }
+
+  @Test
+  public void test_open_shares_mapping(@TempDir Path dir) throws IOException {
+    final Path file = dir.resolve("stems.dict");
+    Files.write(file, build(List.of(Map.entry("psa", "pes"))));
+    assertSame(StemDictionary.open(file), StemDictionary.open(dir.resolve("./stems.dict")));
+    assertEquals(1, StemDictionary.open(file).size());
+  }
+
+  @Test
+  public void test_rejects_other_files() {
+    assertThrows(IllegalArgumentException.class, () -> StemDictionary.wrap(new byte[32]));
+  }
+
+  private static void assertCorrupted(byte[] bytes) {
+    final IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> StemDictionary.wrap(bytes));
+    assertTrue(e.getMessage().startsWith("Corrupted stem dictionary"), e.getMessage());
+  }
+
+  @Test
+  public void test_rejects_truncated_files() throws IOException {
+    final byte[] bytes = build(List.of(Map.entry("lidé", "člověk"), Map.entry("psa", "pes")));
+    // the last entry, the slot table and the header cut short
+    assertCorrupted(Arrays.copyOf(bytes, bytes.length - 2));
+    assertCorrupted(Arrays.copyOf(bytes, 5 * Integer.BYTES + 4));
+    assertCorrupted(Arrays.copyOf(bytes, 5 * Integer.BYTES));
+  }
+
+  @Test
+  public void test_rejects_corrupted_headers() throws IOException {
+    final byte[] bytes = build(List.of(Map.entry("lidé", "člověk"), Map.entry("psa", "pes")));
+    final int slots = ByteBuffer.wrap(bytes).getInt(2 * Integer.BYTES);
+    // slot count overflowing the data offset, entry count, longest stem sizing the term buffers
+    assertCorrupted(withInt(bytes, 2 * Integer.BYTES, 1 << 30));
+    assertCorrupted(withInt(bytes, 2 * Integer.BYTES, Integer.MIN_VALUE));
+    assertCorrupted(withInt(bytes, 3 * Integer.BYTES, -1));
+    assertCorrupted(withInt(bytes, 3 * Integer.BYTES, slots));
+    assertCorrupted(withInt(bytes, 4 * Integer.BYTES, 1 << 20));
+    assertCorrupted(withInt(bytes, 4 * Integer.BYTES, 7));
+    // an entry offset past the end of the file
+    for (int slot = 0; slot < slots; slot++) {
+      final int position = 5 * Integer.BYTES + slot * 2 * Integer.BYTES + Integer.BYTES;
+      if (ByteBuffer.wrap(bytes).getInt(position) >= 0) {
+        assertCorrupted(withInt(bytes, position, bytes.length));
+      }
+    }
+  }
+
+  private static byte[] withInt(byte[] bytes, int position, int value) {
+    final byte[] copy = bytes.clone();
+    ByteBuffer.wrap(copy).putInt(position, value);
+    return copy;
+  }
+}
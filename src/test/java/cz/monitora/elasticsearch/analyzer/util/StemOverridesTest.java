@@ -0,0 +1,89 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StemOverridesTest {
+  private static final Stemmer TRUNCATE = (s, len) -> Math.min(len, 3);
+
+  private static String stem(Stemmer stemmer, String val, int capacity) {
+    char[] ch = Arrays.copyOf(val.toCharArray(), Math.max(val.length(), capacity));
+    return new String(ch, 0, stemmer.stem(ch, val.length()));
+  }
+
+  @Test
+  public void test_lookup() throws IOException {
+    final StemOverrides overrides =
+        StemOverrides.of(
+            List.of(
+                Map.entry("lidé", "člověk"),
+                Map.entry("lidem", "člověk"),
+                Map.entry("psa", "pes"),
+                Map.entry("psa", "ignored"),
+                Map.entry("", "empty")),
+            false);
+    assertEquals(3, overrides.size());
+    assertEquals(6, overrides.maxStemLength());
+
+    final Stemmer stemmer = overrides.orElse(TRUNCATE);
+    assertEquals("člověk", stem(stemmer, "lidé", 6));
+    assertEquals("člověk", stem(stemmer, "lidem", 6));
+    assertEquals("pes", stem(stemmer, "psa", 0));
+    // prefixes and extensions of a form are not overridden
+    assertEquals("lid", stem(stemmer, "lid", 0));
+    assertEquals("ps", stem(stemmer, "ps", 0));
+    assertEquals("psa", stem(stemmer, "psací", 0));
+    assertEquals("", stem(stemmer, "", 0));
+  }
+
+  @Test
+  public void test_many_entries() throws IOException {
+    final List<Map.Entry<String, String>> entries = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      entries.add(Map.entry("slovo" + i, "s" + (i % 1000)));
+    }
+    final Stemmer stemmer = StemOverrides.of(entries, false).orElse(TRUNCATE);
+    for (int i = 0; i < 100_000; i++) {
+      assertEquals("s" + (i % 1000), stem(stemmer, "slovo" + i, 0));
+      assertEquals("jin", stem(stemmer, "jiné" + i, 0));
+    }
+  }
+
+  @Test
+  public void test_ascii_fold() throws IOException {
+    final Stemmer stemmer =
+        StemOverrides.of(List.of(Map.entry("lidé", "člověk")), true).orElse(TRUNCATE);
+    assertEquals("clovek", stem(stemmer, "lide", 6));
+    assertEquals("lid", stem(stemmer, "lidé", 6));
+  }
+
+  @Test
+  public void test_empty() throws IOException {
+    final StemOverrides overrides = StemOverrides.of(List.of(), false);
+    assertEquals(0, overrides.size());
+    assertSame(TRUNCATE, overrides.orElse(TRUNCATE));
+  }
+
+  @Test
+  public void test_open_shares_table(@TempDir Path dir) throws IOException {
+    final Path file = dir.resolve("overrides.tsv");
+    Files.write(
+        file,
+        List.of("# fixes", "lidé\tčlověk", "no tab", "psa\tpes\t42"),
+        StandardCharsets.UTF_8);
+    final StemOverrides overrides = StemOverrides.open(file, false);
+    assertSame(overrides, StemOverrides.open(dir.resolve("./overrides.tsv"), false));
+    assertEquals(2, overrides.size());
+    assertEquals("pes", stem(overrides.orElse(TRUNCATE), "psa", 0));
+  }
+}
@@ -0,0 +1,150 @@
+package cz.monitora.elasticsearch.analyzer.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import cz.monitora.elasticsearch.analyzer.croatian.CroatianStemFilter;
+import cz.monitora.elasticsearch.analyzer.czech.CzechStemFilter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class TokenClassifierTest {
+
+  private static Tokenizer tokenizer(String text) {
+    final Tokenizer tokenizer = new WhitespaceTokenizer();
+    tokenizer.setReader(new StringReader(text));
+    return tokenizer;
+  }
+
+  private static List<String> tokens(TokenStream stream) throws IOException {
+    final CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+    final KeywordAttribute keyword = stream.addAttribute(KeywordAttribute.class);
+    final TypeAttribute type = stream.addAttribute(TypeAttribute.class);
+    final List<String> result = new ArrayList<>();
+    stream.reset();
+    while (stream.incrementToken()) {
+      result.add(term + "/" + type.type() + (keyword.isKeyword() ? "/k" : ""));
+    }
+    stream.end();
+    stream.close();
+    return result;
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = ' ',
+      nullValues = "-",
+      value = {
+        "https://example.com/a?b=c url",
+        "http://x url",
+        "www.monitora.cz url",
+        "ftp://example.com url",
+        "HTTPS://EXAMPLE.COM url",
+        "jan.novak@example.com email",
+        "info2@monitora.cz email",
+        "#praha hashtag",
+        "#volby2025 hashtag",
+        "$AAPL ticker",
+        "$brk.b ticker",
+        "18.10.2026 date",
+        "18.10.2026. date",
+        "18.10. date",
+        "1.5.2026 date",
+        "2026-10-18 date",
+        "10/18/26 date",
+        "42 number",
+        "7 number",
+        "-3,14 number",
+        "3.14 number",
+        "1.000.000 number",
+        "12:30 number",
+        "2026. number",
+        "$100 number",
+        "10% number",
+        "A320 mixed",
+        "covid19 mixed",
+        "5G mixed",
+        "covid-19 mixed",
+        "praha -",
+        "Praha -",
+        "a -",
+        "e-mail -",
+        "@monitora -",
+        "x@y -",
+        "# -",
+        "$ -",
+        "www -",
+      })
+  public void test_classify(String token, String expected) {
+    assertEquals(
+        expected == null ? null : TokenClass.parse(List.of(expected)).iterator().next(),
+        TokenClassifier.classify(token.toCharArray(), token.length()),
+        token);
+  }
+
+  @Test
+  public void test_skipped_tokens_are_keywords() throws IOException {
+    final AnalysisStats stats = new AnalysisStats("test");
+    final StemFilterOptions options =
+        StemFilterOptions.DEFAULT
+            .withSkipTokenClasses(EnumSet.of(TokenClass.URL, TokenClass.NUMBER), true)
+            .withStats(stats);
+    assertEquals(
+        List.of(
+            "hrad/word",
+            "https://hradech.cz/hradech/<URL>/k",
+            "2026/<NUM>/k",
+            "a320/word",
+            "hrad/word"),
+        tokens(
+            new CzechStemFilter(
+                tokenizer("hradech https://hradech.cz/hradech 2026 a320 hradech"),
+                false,
+                options)));
+    assertEquals(5, stats.tokens());
+    assertEquals(3, stats.stemmed());
+    assertEquals(2, stats.skipped());
+    assertEquals(1, stats.skipped(TokenClass.URL));
+    assertEquals(1, stats.skipped(TokenClass.NUMBER));
+    assertEquals(0, stats.skipped(TokenClass.MIXED));
+  }
+
+  @Test
+  public void test_type_is_optional() throws IOException {
+    final StemFilterOptions options =
+        StemFilterOptions.DEFAULT.withSkipTokenClasses(Set.of(TokenClass.URL), false);
+    assertEquals(
+        List.of("www.hradech.cz/word/k"),
+        tokens(
+            new CroatianStemFilter(
+                tokenizer("www.hradech.cz"),
+                options,
+                1000,
+                Long.MAX_VALUE,
+                false,
+                new LongAdder())));
+  }
+
+  @Test
+  public void test_unknown_class() {
+    final IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class, () -> TokenClass.parse(List.of("url", "phone")));
+    assertTrue(e.getMessage().contains("[phone]"), e.getMessage());
+    assertEquals(
+        EnumSet.of(TokenClass.URL, TokenClass.DATE), TokenClass.parse(List.of("URL", "date")));
+  }
+}